@@ -48,6 +48,7 @@ public class CorsConfig {
         // İsteğe bağlı: frontend'in okumasına izin verilen header'lar
         configuration.setExposedHeaders(Arrays.asList(
                 "Authorization",
+                "ETag",
                 "Access-Control-Allow-Origin",
                 "Access-Control-Allow-Credentials"
         ));
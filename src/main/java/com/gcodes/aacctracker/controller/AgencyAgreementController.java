@@ -9,11 +9,13 @@ import com.gcodes.aacctracker.model.User;
 import com.gcodes.aacctracker.service.AgencyAgreementService;
 import com.gcodes.aacctracker.service.AuditLogService;
 import com.gcodes.aacctracker.service.UserService;
+import com.gcodes.aacctracker.repository.AgencyAgreementRepository.AgreementStamp;
 import com.gcodes.aacctracker.repository.CompanyRepository;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -22,6 +24,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/agreements")
@@ -236,12 +239,24 @@ public class AgencyAgreementController {
 
     // ✅ Tek anlaşma getir
     @GetMapping("/{id}")
-    public ResponseEntity<?> getAgreement(@PathVariable Long id) {
+    public ResponseEntity<?> getAgreement(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Authentication auth = SecurityContextHolder.getContext().getAuthentication();
             User currentUser = userService.findByEmail(auth.getName())
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
+            // ✅ Koşullu GET: istemcideki kopya güncelse anlaşma ve firmalar yüklenmeden 304 döner
+            if (ifNoneMatch != null) {
+                Optional<String> etag = agreementService.findAgreementStamp(id)
+                        .filter(stamp -> canViewAgreement(currentUser, stamp))
+                        .map(stamp -> ETags.of("AgencyAgreement", id, stamp.getUpdatedAt()));
+                if (etag.isPresent() && ETags.matches(ifNoneMatch, etag.get())) {
+                    return ETags.notModified(etag.get());
+                }
+            }
+
             AgencyAgreement agreement = agreementService.getAgreementById(id);
 
             // Yetki kontrolü
@@ -252,7 +267,7 @@ public class AgencyAgreementController {
                         .body(Map.of("error", "❌ Access denied to this agreement"));
             }
 
-            return ResponseEntity.ok(agreement);
+            return ETags.ok(ETags.of("AgencyAgreement", id, agreement.getUpdatedAt()), agreement);
 
         } catch (Exception e) {
             logger.error("Error getting agreement", e);
@@ -501,4 +516,16 @@ public class AgencyAgreementController {
                     .body(Map.of("error", "❌ Error: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    // ✅ Helper: getAgreement yetki kuralının (isAdminOfCompany broker veya client) id'lerle karşılığı
+    private boolean canViewAgreement(User user, AgreementStamp stamp) {
+        if (user.isSuperAdmin()) {
+            return true;
+        }
+        if (!user.isBrokerAdmin() || user.getCompany() == null) {
+            return false;
+        }
+        Long companyId = user.getCompany().getId();
+        return companyId.equals(stamp.getBrokerCompanyId()) || companyId.equals(stamp.getClientParentBrokerId());
+    }
+}
@@ -0,0 +1,101 @@
+package com.gcodes.aacctracker.controller;
+
+import com.gcodes.aacctracker.dto.AuditLogEntryResponse;
+import com.gcodes.aacctracker.dto.AuditLogSearchCriteria;
+import com.gcodes.aacctracker.dto.CursorPage;
+import com.gcodes.aacctracker.model.User;
+import com.gcodes.aacctracker.service.AuditLogQueryService;
+import com.gcodes.aacctracker.service.AuditLogService;
+import com.gcodes.aacctracker.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Sadece SUPER_ADMIN (SecurityConfig)
+@RestController
+@RequestMapping("/api/audit-logs")
+@CrossOrigin(origins = "*")
+public class AuditLogController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogController.class);
+
+    @Autowired
+    private AuditLogQueryService auditLogQueryService;
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private UserService userService;
+
+    // ✅ Audit kayıtlarında arama
+    // Filtreler: userId, entityType, entityId, action, result, from, to (ISO tarih-saat; from dahil, to hariç)
+    // Keyset sayfalama: yanıttaki nextCursor bir sonraki istekte "cursor" olarak gönderilir
+    @GetMapping
+    public ResponseEntity<?> searchAuditLogs(
+            AuditLogSearchCriteria criteria,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<AuditLogEntryResponse> page = auditLogQueryService.search(criteria, cursor, size);
+
+            // nextCursor null olabileceği için HashMap
+            Map<String, Object> response = new HashMap<>();
+            response.put("entries", page.getItems());
+            response.put("size", page.getItems().size());
+            response.put("hasMore", page.isHasMore());
+            response.put("nextCursor", page.getNextCursor());
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error searching audit logs", e);
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "❌ Error: " + e.getMessage()));
+        }
+    }
+
+    // ✅ Filtreye uyan tüm kayıtları CSV olarak dışa aktar (stream, eskiden yeniye)
+    @GetMapping("/export")
+    public ResponseEntity<?> exportAuditLogs(AuditLogSearchCriteria criteria) {
+        try {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            User currentUser = userService.findByEmail(auth.getName())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            // Satırlar istek thread'i dışında, yazıldıkça istemciye akar;
+            // audit kaydı stream bittikten sonra (yarıda kalırsa FAILURE olarak) yazılır
+            StreamingResponseBody body = out -> {
+                try {
+                    long count = auditLogQueryService.exportCsv(criteria, out);
+                    auditLogService.logAction(currentUser, "EXPORT_AUDIT_LOGS", "AuditLog", null);
+                    logger.info("Audit log export by {}: {} entries", currentUser.getEmail(), count);
+                } catch (IOException | RuntimeException e) {
+                    auditLogService.logActionError(currentUser, "EXPORT_AUDIT_LOGS", "AuditLog", null, null, e);
+                    throw e;
+                }
+            };
+
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"audit-logs.csv\"")
+                    .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                    .body(body);
+
+        } catch (Exception e) {
+            logger.error("Error exporting audit logs", e);
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "❌ Error: " + e.getMessage()));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.gcodes.aacctracker.controller;
 
 import com.gcodes.aacctracker.dto.*;
+import com.gcodes.aacctracker.exception.PasswordHashingBusyException;
 import com.gcodes.aacctracker.model.Company;
 import com.gcodes.aacctracker.model.User;
 import com.gcodes.aacctracker.repository.CompanyRepository;
@@ -10,6 +11,7 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -61,6 +63,11 @@ public class AuthController {
                     "availableBrokers", response.getAvailableBrokers(),
                     "selectedBroker", response.getSelectedBroker()
             ));
+        } catch (PasswordHashingBusyException e) {
+            logger.warn("Password hashing busy during client registration: {}", e.getMessage());
+            return ResponseEntity.status(503)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "⏳ Server is busy, please try again shortly"));
         } catch (Exception e) {
             logger.error("Client registration error", e);
             return ResponseEntity.badRequest()
@@ -114,6 +121,11 @@ public class AuthController {
                     "token", response.getToken(),
                     "user", userMap
             ));
+        } catch (PasswordHashingBusyException e) {
+            logger.warn("Password hashing busy during login: {}", e.getMessage());
+            return ResponseEntity.status(503)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "⏳ Server is busy, please try again shortly"));
         } catch (Exception e) {
             logger.error("Login error for user: {}", request.getEmail(), e);
             return ResponseEntity.badRequest()
@@ -142,6 +154,11 @@ public class AuthController {
                     "selectedBroker", response.getSelectedBroker(),
                     "status", response.getStatus()  // ✅ Eklendi
             ));
+        } catch (PasswordHashingBusyException e) {
+            logger.warn("Password hashing busy during login with context: {}", e.getMessage());
+            return ResponseEntity.status(503)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "⏳ Server is busy, please try again shortly"));
         } catch (Exception e) {
             logger.error("Login with context error for user: {}", request.getEmail(), e);
 
@@ -6,6 +6,7 @@ import com.gcodes.aacctracker.dto.CompanyUpdateRequest;
 import com.gcodes.aacctracker.exception.LimitExceededException;
 import com.gcodes.aacctracker.model.*;
 import com.gcodes.aacctracker.repository.CompanyRepository;
+import com.gcodes.aacctracker.service.CompanyHierarchyService;
 import com.gcodes.aacctracker.service.CompanyService;
 import com.gcodes.aacctracker.service.LimitCheckService;
 import com.gcodes.aacctracker.service.SubscriptionService;
@@ -14,6 +15,7 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -47,6 +49,9 @@ public class CompanyController {
     @Autowired
     private LimitCheckService limitCheckService;
 
+    @Autowired
+    private CompanyHierarchyService companyHierarchyService;
+
     // ==========================================
     // GÜMRÜK FİRMASI OLUŞTURMA (SUPER_ADMIN)
     // ==========================================
@@ -234,6 +239,7 @@ public class CompanyController {
             Company company = companyOpt.get();
             company.setIsActive(!company.getIsActive());
             companyRepository.save(company);
+            companyHierarchyService.clientChangedAfterCommit(company);
 
             String status = company.getIsActive() ? "activated" : "deactivated";
             logger.info("Company {}: {} by {}", status, company.getName(), currentUser.getEmail());
@@ -281,7 +287,9 @@ public class CompanyController {
      * ID ile firma getir
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getCompanyById(@PathVariable Long id) {
+    public ResponseEntity<?> getCompanyById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Authentication auth = SecurityContextHolder.getContext().getAuthentication();
             User currentUser = userService.findByEmail(auth.getName())
@@ -299,7 +307,15 @@ public class CompanyController {
                         .body(Map.of("error", "❌ Access denied to this company"));
             }
 
-            return ResponseEntity.ok(mapCompanyToResponse(company));
+            // ✅ Koşullu GET: firmanın updatedAt alanı yok; ETag yanıt alanlarından hesaplanır
+            // (firma ikinci seviye önbellekten gelir, gövde serileştirilmez)
+            Map<String, Object> response = mapCompanyToResponse(company);
+            String etag = ETags.of("Company", response);
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ETags.notModified(etag);
+            }
+
+            return ETags.ok(etag, response);
         } catch (Exception e) {
             logger.error("Error getting company", e);
             return ResponseEntity.badRequest()
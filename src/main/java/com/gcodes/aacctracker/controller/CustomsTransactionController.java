@@ -1,11 +1,22 @@
 package com.gcodes.aacctracker.controller;
 
+import com.gcodes.aacctracker.dto.CursorPage;
+import com.gcodes.aacctracker.dto.TransactionBulkStatusRequest;
+import com.gcodes.aacctracker.dto.TransactionBulkStatusResult;
 import com.gcodes.aacctracker.dto.TransactionCreateRequest;
+import com.gcodes.aacctracker.dto.TransactionImportResult;
+import com.gcodes.aacctracker.dto.TransactionSummaryResponse;
 import com.gcodes.aacctracker.dto.TransactionUpdateRequest;
 import com.gcodes.aacctracker.model.*;
 import com.gcodes.aacctracker.service.CustomsTransactionService;
 import com.gcodes.aacctracker.service.TransactionAuthorizationService;
-import com.gcodes.aacctracker.service.UserService;
+import com.gcodes.aacctracker.service.TransactionExportService;
+import com.gcodes.aacctracker.service.TransactionImportService;
+import com.gcodes.aacctracker.service.TransactionRequestContext;
+import com.gcodes.aacctracker.service.TransactionScope;
+import com.gcodes.aacctracker.service.TransactionSearchService;
+import com.gcodes.aacctracker.service.TransactionExportService.ExportFormat;
+import com.gcodes.aacctracker.service.AuditDiffService;
 import com.gcodes.aacctracker.service.AuditLogService;
 import com.gcodes.aacctracker.repository.CompanyRepository;
 import jakarta.validation.Valid;
@@ -13,15 +24,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -37,21 +54,31 @@ public class CustomsTransactionController {
     private TransactionAuthorizationService authService;
 
     @Autowired
-    private UserService userService;
+    private AuditLogService auditLogService;
 
     @Autowired
-    private AuditLogService auditLogService;
+    private AuditDiffService auditDiffService;
 
     @Autowired
     private CompanyRepository companyRepository;
 
+    @Autowired
+    private TransactionExportService exportService;
+
+    @Autowired
+    private TransactionImportService importService;
+
+    @Autowired
+    private TransactionSearchService searchService;
+
+    @Autowired
+    private TransactionRequestContext requestContext;
+
     // ✅ İşlem oluşturma
     @PostMapping
     public ResponseEntity<?> createTransaction(@Valid @RequestBody TransactionCreateRequest request) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = userService.findByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User currentUser = requestContext.currentUser();
 
             // Yetki kontrolü
             if (!authService.canCreateTransaction(currentUser, request.getBrokerCompanyId())) {
@@ -108,18 +135,57 @@ public class CustomsTransactionController {
         }
     }
 
+    // ✅ YENİ: Excel / CSV ile toplu işlem içe aktarma
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importTransactions(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam Long brokerCompanyId,
+            @RequestParam(required = false) Long clientCompanyId) {
+        try {
+            User currentUser = requestContext.currentUser();
+
+            // Yetki kontrolü
+            if (!authService.canCreateTransaction(currentUser, brokerCompanyId)) {
+                auditLogService.logAction(currentUser, "IMPORT_TRANSACTIONS_DENIED",
+                        "CustomsTransaction", null, getClientIp());
+                return ResponseEntity.status(403)
+                        .body(Map.of("error", "❌ Insufficient permissions to import transactions for this broker"));
+            }
+
+            if (file.isEmpty()) {
+                throw new RuntimeException("Uploaded file is empty");
+            }
+
+            TransactionImportResult result = importService.importTransactions(
+                    file, brokerCompanyId, clientCompanyId, currentUser);
+
+            // Tek özet audit kaydı (satır başına değil)
+            auditLogService.logAction(currentUser, "IMPORT_TRANSACTIONS",
+                    "CustomsTransaction", null, getClientIp());
+
+            return ResponseEntity.ok(Map.of(
+                    "message", "✅ Import completed: " + result.getImportedRows() + " imported, "
+                            + result.getFailedRows() + " failed",
+                    "result", result
+            ));
+
+        } catch (Exception e) {
+            logger.error("Error importing transactions", e);
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "❌ Error importing transactions: " + e.getMessage()));
+        }
+    }
+
     // ✅ İşlem güncelleme
     @PutMapping("/{id}")
     public ResponseEntity<?> updateTransaction(
             @PathVariable Long id,
             @Valid @RequestBody TransactionUpdateRequest request) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = userService.findByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User currentUser = requestContext.currentUser();
 
             // Yetki kontrolü
-            if (!authService.canUpdateTransaction(currentUser, id)) {
+            if (!requestContext.canUpdateTransaction(id)) {
                 auditLogService.logAction(currentUser, "UPDATE_TRANSACTION_DENIED",
                         "CustomsTransaction", id, getClientIp());
                 return ResponseEntity.status(403)
@@ -127,8 +193,8 @@ public class CustomsTransactionController {
             }
 
             // Mevcut transaction'ı getir
-            CustomsTransaction existing = transactionService.getTransactionById(id);
-            CustomsTransaction before = cloneTransaction(existing);
+            CustomsTransaction existing = requestContext.getTransaction(id);
+            Map<String, Object> before = auditDiffService.snapshot(existing);
 
             // Güncellemeleri uygula
             CustomsTransaction updated = new CustomsTransaction();
@@ -148,11 +214,11 @@ public class CustomsTransactionController {
             updated.setDescription(request.getDescription());
             updated.setDelayReason(request.getDelayReason());
 
-            CustomsTransaction result = transactionService.updateTransaction(id, updated, currentUser);
+            CustomsTransaction result = transactionService.updateTransaction(existing, updated, currentUser);
 
-            // Audit log with changes
+            // Audit log: sadece değişen alanlar
             auditLogService.logActionWithChanges(currentUser, "UPDATE_TRANSACTION",
-                    "CustomsTransaction", id, before, result);
+                    "CustomsTransaction", id, before, auditDiffService.snapshot(result), getClientIp());
 
             logger.info("Transaction updated: {} by {}", id, currentUser.getEmail());
 
@@ -174,20 +240,21 @@ public class CustomsTransactionController {
             @PathVariable Long id,
             @RequestParam TransactionStatus status) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = userService.findByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User currentUser = requestContext.currentUser();
 
             // Yetki kontrolü
-            if (!authService.canChangeTransactionStatus(currentUser, id)) {
+            if (!requestContext.canChangeTransactionStatus(id)) {
                 return ResponseEntity.status(403)
                         .body(Map.of("error", "❌ Insufficient permissions to change transaction status"));
             }
 
-            CustomsTransaction updated = transactionService.updateTransactionStatus(id, status, currentUser);
+            CustomsTransaction existing = requestContext.getTransaction(id);
+            Map<String, Object> before = auditDiffService.snapshot(existing);
 
-            auditLogService.logAction(currentUser, "UPDATE_TRANSACTION_STATUS",
-                    "CustomsTransaction", id, getClientIp());
+            CustomsTransaction updated = transactionService.updateTransactionStatus(existing, status, currentUser);
+
+            auditLogService.logActionWithChanges(currentUser, "UPDATE_TRANSACTION_STATUS",
+                    "CustomsTransaction", id, before, auditDiffService.snapshot(updated), getClientIp());
 
             return ResponseEntity.ok(Map.of(
                     "message", "✅ Transaction status updated successfully",
@@ -205,19 +272,20 @@ public class CustomsTransactionController {
     @PostMapping("/{id}/complete")
     public ResponseEntity<?> completeTransaction(@PathVariable Long id) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = userService.findByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User currentUser = requestContext.currentUser();
 
-            if (!authService.canChangeTransactionStatus(currentUser, id)) {
+            if (!requestContext.canChangeTransactionStatus(id)) {
                 return ResponseEntity.status(403)
                         .body(Map.of("error", "❌ Insufficient permissions"));
             }
 
-            CustomsTransaction completed = transactionService.completeTransaction(id, currentUser);
+            CustomsTransaction existing = requestContext.getTransaction(id);
+            Map<String, Object> before = auditDiffService.snapshot(existing);
 
-            auditLogService.logAction(currentUser, "COMPLETE_TRANSACTION",
-                    "CustomsTransaction", id, getClientIp());
+            CustomsTransaction completed = transactionService.completeTransaction(existing, currentUser);
+
+            auditLogService.logActionWithChanges(currentUser, "COMPLETE_TRANSACTION",
+                    "CustomsTransaction", id, before, auditDiffService.snapshot(completed), getClientIp());
 
             return ResponseEntity.ok(Map.of(
                     "message", "✅ Transaction completed successfully",
@@ -237,19 +305,21 @@ public class CustomsTransactionController {
             @PathVariable Long id,
             @RequestParam(required = false) String reason) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = userService.findByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User currentUser = requestContext.currentUser();
 
-            if (!authService.canChangeTransactionStatus(currentUser, id)) {
+            if (!requestContext.canChangeTransactionStatus(id)) {
                 return ResponseEntity.status(403)
                         .body(Map.of("error", "❌ Insufficient permissions"));
             }
 
-            CustomsTransaction cancelled = transactionService.cancelTransaction(id, reason, currentUser);
+            // İptal durumu ve gecikme nedenini değiştirir; fark geçmiş sürüm için saklanır
+            CustomsTransaction existing = requestContext.getTransaction(id);
+            Map<String, Object> before = auditDiffService.snapshot(existing);
 
-            auditLogService.logAction(currentUser, "CANCEL_TRANSACTION",
-                    "CustomsTransaction", id, getClientIp());
+            CustomsTransaction cancelled = transactionService.cancelTransaction(existing, reason, currentUser);
+
+            auditLogService.logActionWithChanges(currentUser, "CANCEL_TRANSACTION",
+                    "CustomsTransaction", id, before, auditDiffService.snapshot(cancelled), getClientIp());
 
             return ResponseEntity.ok(Map.of(
                     "message", "✅ Transaction cancelled successfully",
@@ -263,26 +333,72 @@ public class CustomsTransactionController {
         }
     }
 
+    // ✅ YENİ: Toplu durum değişikliği (id listesi veya filtre ile)
+    @PostMapping("/bulk-status")
+    public ResponseEntity<?> bulkUpdateStatus(@Valid @RequestBody TransactionBulkStatusRequest request) {
+        try {
+            User currentUser = requestContext.currentUser();
+
+            // Yetki kontrolü: tüm küme tek kapsamla (broker) sorgulanır
+            TransactionScope scope = authService.resolveStatusChangeScope(currentUser, request.getBrokerCompanyId());
+            if (scope == null) {
+                return ResponseEntity.status(403)
+                        .body(Map.of("error", "❌ Insufficient permissions to change transaction status"));
+            }
+
+            TransactionBulkStatusResult result = transactionService.bulkUpdateStatus(request, scope, currentUser);
+
+            // Tek batch audit kaydı (işlem başına bir satır ve kendi durum farkı, tek insert)
+            Map<Long, Map<String, Object>> before = new LinkedHashMap<>();
+            result.getPreviousStatuses().forEach((transactionId, previous) ->
+                    before.put(transactionId, Map.of("status", previous.name())));
+            auditLogService.logBatch(currentUser, statusAuditAction(result.getStatus()),
+                    "CustomsTransaction", before, Map.of("status", result.getStatus().name()), getClientIp());
+
+            return ResponseEntity.ok(Map.of(
+                    "message", "✅ " + result.getUpdatedCount() + " transactions updated successfully",
+                    "result", result
+            ));
+
+        } catch (Exception e) {
+            logger.error("Error bulk updating transaction status", e);
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "❌ Error: " + e.getMessage()));
+        }
+    }
+
     // ✅ Tek işlem getir
     @GetMapping("/{id}")
-    public ResponseEntity<?> getTransaction(@PathVariable Long id) {
+    public ResponseEntity<?> getTransaction(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = userService.findByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User currentUser = requestContext.currentUser();
+
+            // ✅ Koşullu GET: istemcideki kopya güncelse detaylar yüklenmeden 304 döner
+            // (görüntüleme yine de audit'e yazılır)
+            if (ifNoneMatch != null) {
+                Optional<String> etag = requestContext.findViewableUpdatedAt(id)
+                        .map(updatedAt -> ETags.of("CustomsTransaction", id, updatedAt));
+                if (etag.isPresent() && ETags.matches(ifNoneMatch, etag.get())) {
+                    auditLogService.logAction(currentUser, "VIEW_TRANSACTION",
+                            "CustomsTransaction", id, getClientIp());
+                    return ETags.notModified(etag.get());
+                }
+            }
 
             // Yetki kontrolü
-            if (!authService.canViewTransaction(currentUser, id)) {
+            if (!requestContext.canViewTransaction(id)) {
                 return ResponseEntity.status(403)
                         .body(Map.of("error", "❌ Access denied to this transaction"));
             }
 
-            CustomsTransaction transaction = transactionService.getTransactionById(id);
+            CustomsTransaction transaction = requestContext.getTransaction(id);
 
             auditLogService.logAction(currentUser, "VIEW_TRANSACTION",
                     "CustomsTransaction", id, getClientIp());
 
-            return ResponseEntity.ok(transaction);
+            return ETags.ok(ETags.of("CustomsTransaction", id, transaction.getUpdatedAt()), transaction);
 
         } catch (Exception e) {
             logger.error("Error getting transaction", e);
@@ -291,19 +407,57 @@ public class CustomsTransactionController {
         }
     }
 
+    // ✅ YENİ: İşlemin verilen andaki hali (audit farklarından yeniden oluşturulur)
+    @GetMapping("/{id}/history")
+    public ResponseEntity<?> getTransactionAsOf(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        try {
+            if (!requestContext.canViewTransaction(id)) {
+                return ResponseEntity.status(403)
+                        .body(Map.of("error", "❌ Access denied to this transaction"));
+            }
+
+            CustomsTransaction transaction = requestContext.getTransaction(id);
+
+            // Saklama süresinden eski farklar silinmiştir: yarım oluşturulmuş bir sürüm doğru gibi dönmemeli
+            LocalDateTime horizon = auditDiffService.historyHorizon();
+            if (horizon != null && asOf.isBefore(horizon)) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "❌ History is only available after " + horizon
+                                + " (audit retention)"));
+            }
+
+            // İşlem o anda henüz yoktu: güncel değerler geçmiş sürüm gibi dönmemeli
+            if (asOf.isBefore(transaction.getCreatedAt())) {
+                return ResponseEntity.status(404)
+                        .body(Map.of("error", "❌ Transaction did not exist at " + asOf));
+            }
+
+            return ResponseEntity.ok(Map.of(
+                    "transactionId", id,
+                    "asOf", asOf,
+                    "fields", auditDiffService.rebuildAsOf(transaction, id, asOf)
+            ));
+
+        } catch (Exception e) {
+            logger.error("Error rebuilding transaction history", e);
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "❌ Error: " + e.getMessage()));
+        }
+    }
+
     // ✅ Dosya numarasına göre işlem getir
     @GetMapping("/by-file-no/{fileNo}")
     public ResponseEntity<?> getTransactionByFileNo(@PathVariable String fileNo) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = userService.findByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User currentUser = requestContext.currentUser();
 
             CustomsTransaction transaction = transactionService.getTransactionByFileNo(fileNo)
                     .orElseThrow(() -> new RuntimeException("Transaction not found"));
 
             // Yetki kontrolü
-            if (!authService.canViewTransaction(currentUser, transaction.getId())) {
+            if (!authService.canViewTransaction(currentUser, transaction)) {
                 return ResponseEntity.status(403)
                         .body(Map.of("error", "❌ Access denied to this transaction"));
             }
@@ -318,24 +472,27 @@ public class CustomsTransactionController {
     }
 
     // ✅ Broker'ın tüm işlemleri
+    // Keyset sayfalama: yanıttaki nextCursor bir sonraki istekte "cursor" olarak gönderilir
     @GetMapping("/broker/{brokerId}")
-    public ResponseEntity<?> getBrokerTransactions(@PathVariable Long brokerId) {
+    public ResponseEntity<?> getBrokerTransactions(
+            @PathVariable Long brokerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) TransactionStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = userService.findByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User currentUser = requestContext.currentUser();
 
             if (!authService.canViewBrokerClients(currentUser, brokerId)) {
                 return ResponseEntity.status(403)
                         .body(Map.of("error", "❌ Access denied"));
             }
 
-            List<CustomsTransaction> transactions = transactionService.getBrokerTransactions(brokerId);
+            CursorPage<TransactionSummaryResponse> page = transactionService.getBrokerTransactionsPage(
+                    brokerId, status, from, to, cursor, size);
 
-            return ResponseEntity.ok(Map.of(
-                    "total", transactions.size(),
-                    "transactions", transactions
-            ));
+            return ResponseEntity.ok(toPageResponse(page));
 
         } catch (Exception e) {
             logger.error("Error getting broker transactions", e);
@@ -344,26 +501,75 @@ public class CustomsTransactionController {
         }
     }
 
+    // ✅ YENİ: Broker'ın tüm işlem geçmişini dışa aktar (CSV / NDJSON, stream)
+    @GetMapping("/broker/{brokerId}/export")
+    public ResponseEntity<?> exportBrokerTransactions(
+            @PathVariable Long brokerId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) TransactionStatus status) {
+        try {
+            User currentUser = requestContext.currentUser();
+
+            if (!authService.canViewBrokerClients(currentUser, brokerId)) {
+                return ResponseEntity.status(403)
+                        .body(Map.of("error", "❌ Access denied"));
+            }
+
+            ExportFormat exportFormat = ExportFormat.from(format);
+
+            String clientIp = getClientIp();
+
+            // Satırlar istek thread'i dışında, yazıldıkça istemciye akar;
+            // audit kaydı stream bittikten sonra (yarıda kalırsa FAILURE olarak) yazılır
+            StreamingResponseBody body = out -> {
+                try {
+                    exportService.exportBrokerTransactions(brokerId, status, exportFormat, out);
+                    auditLogService.logAction(currentUser, "EXPORT_TRANSACTIONS",
+                            "CustomsTransaction", null, clientIp);
+                } catch (IOException | RuntimeException e) {
+                    auditLogService.logActionError(currentUser, "EXPORT_TRANSACTIONS",
+                            "CustomsTransaction", null, clientIp, e);
+                    throw e;
+                }
+            };
+
+            String fileName = "transactions-broker-" + brokerId + "." + exportFormat.getExtension();
+
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                    .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                    .body(body);
+
+        } catch (Exception e) {
+            logger.error("Error exporting broker transactions", e);
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "❌ Error: " + e.getMessage()));
+        }
+    }
+
     // ✅ Client'in tüm işlemleri (READ ONLY)
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<?> getClientTransactions(@PathVariable Long clientId) {
+    public ResponseEntity<?> getClientTransactions(
+            @PathVariable Long clientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) TransactionStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = userService.findByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User currentUser = requestContext.currentUser();
 
             if (!authService.canViewClientStats(currentUser, clientId)) {
                 return ResponseEntity.status(403)
                         .body(Map.of("error", "❌ Access denied"));
             }
 
-            List<CustomsTransaction> transactions = transactionService.getClientTransactions(clientId);
+            CursorPage<TransactionSummaryResponse> page = transactionService.getClientTransactionsPage(
+                    clientId, status, from, to, cursor, size);
 
-            return ResponseEntity.ok(Map.of(
-                    "total", transactions.size(),
-                    "transactions", transactions,
-                    "message", "ℹ️ Read-only access - Client users cannot modify transactions"
-            ));
+            Map<String, Object> response = toPageResponse(page);
+            response.put("message", "ℹ️ Read-only access - Client users cannot modify transactions");
+            return ResponseEntity.ok(response);
 
         } catch (Exception e) {
             logger.error("Error getting client transactions", e);
@@ -372,29 +578,58 @@ public class CustomsTransactionController {
         }
     }
 
-    // ✅ Gecikme olan işlemler
-    @GetMapping("/delayed")
-    public ResponseEntity<?> getDelayedTransactions() {
+    // ✅ YENİ: Tam metin arama (dosya no, beyanname no, alıcı, gönderici, antrepo)
+    @GetMapping("/search")
+    public ResponseEntity<?> searchTransactions(
+            @RequestParam String q,
+            @RequestParam(required = false) Long brokerId,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) Integer limit) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = userService.findByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            List<CustomsTransaction> transactions;
-
-            if (currentUser.isSuperAdmin()) {
-                transactions = transactionService.getTransactionsWithDelay();
-            } else {
-                // Normal kullanıcı sadece kendi broker'ının gecikmelerini görebilir
-                // Basitleştirme için şimdilik tüm gecikmeleri döndürelim
-                transactions = transactionService.getTransactionsWithDelay();
+            User currentUser = requestContext.currentUser();
+
+            TransactionScope scope = authService.resolveViewScope(currentUser, brokerId);
+            if (scope == null) {
+                return ResponseEntity.status(403)
+                        .body(Map.of("error", "❌ Access denied"));
             }
 
+            List<TransactionSummaryResponse> results = searchService.search(q, scope, clientId, limit);
+
             return ResponseEntity.ok(Map.of(
-                    "total", transactions.size(),
-                    "transactions", transactions
+                    "query", q,
+                    "total", results.size(),
+                    "transactions", results
             ));
 
+        } catch (Exception e) {
+            logger.error("Error searching transactions", e);
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "❌ Error: " + e.getMessage()));
+        }
+    }
+
+    // ✅ Gecikme olan işlemler (kullanıcının broker/client kapsamında, cursor sayfalı)
+    @GetMapping("/delayed")
+    public ResponseEntity<?> getDelayedTransactions(
+            @RequestParam(required = false) Long brokerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            User currentUser = requestContext.currentUser();
+
+            // SUPER_ADMIN tümünü (veya brokerId ile daraltılmış), diğerleri sadece kendi firmalarını görür
+            TransactionScope scope = authService.resolveViewScope(currentUser, brokerId);
+            if (scope == null) {
+                return ResponseEntity.status(403)
+                        .body(Map.of("error", "❌ Access denied"));
+            }
+
+            CursorPage<TransactionSummaryResponse> page =
+                    transactionService.getDelayedTransactionsPage(scope, cursor, size);
+
+            return ResponseEntity.ok(toPageResponse(page));
+
         } catch (Exception e) {
             logger.error("Error getting delayed transactions", e);
             return ResponseEntity.badRequest()
@@ -402,21 +637,34 @@ public class CustomsTransactionController {
         }
     }
 
-    // ✅ Tarih aralığında işlemler
+    // ✅ Tarih aralığında işlemler (kullanıcının broker/client kapsamında, cursor sayfalı)
     @GetMapping("/date-range")
     public ResponseEntity<?> getTransactionsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long brokerId,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) TransactionStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<CustomsTransaction> transactions =
-                    transactionService.getTransactionsByDateRange(startDate, endDate);
+            User currentUser = requestContext.currentUser();
 
-            return ResponseEntity.ok(Map.of(
-                    "startDate", startDate,
-                    "endDate", endDate,
-                    "total", transactions.size(),
-                    "transactions", transactions
-            ));
+            // SUPER_ADMIN tümünü (veya brokerId ile daraltılmış), diğerleri sadece kendi firmalarını görür
+            TransactionScope scope = authService.resolveViewScope(currentUser, brokerId);
+            if (scope == null) {
+                return ResponseEntity.status(403)
+                        .body(Map.of("error", "❌ Access denied"));
+            }
+
+            CursorPage<TransactionSummaryResponse> page = transactionService.getTransactionsByDateRangePage(
+                    scope, clientId, startDate, endDate, status, cursor, size);
+
+            Map<String, Object> response = toPageResponse(page);
+            response.put("startDate", startDate);
+            response.put("endDate", endDate);
+
+            return ResponseEntity.ok(response);
 
         } catch (Exception e) {
             logger.error("Error getting transactions by date range", e);
@@ -429,7 +677,7 @@ public class CustomsTransactionController {
     @GetMapping("/recent")
     public ResponseEntity<?> getRecentTransactions() {
         try {
-            List<CustomsTransaction> transactions = transactionService.getRecentTransactions();
+            List<TransactionSummaryResponse> transactions = transactionService.getRecentTransactions();
 
             return ResponseEntity.ok(Map.of(
                     "total", transactions.size(),
@@ -447,9 +695,7 @@ public class CustomsTransactionController {
     @GetMapping("/stats/broker/{brokerId}")
     public ResponseEntity<?> getBrokerStats(@PathVariable Long brokerId) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = userService.findByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            User currentUser = requestContext.currentUser();
 
             if (!authService.canViewBrokerClients(currentUser, brokerId)) {
                 return ResponseEntity.status(403)
@@ -475,26 +721,23 @@ public class CustomsTransactionController {
         }
     }
 
-    // ✅ Helper: Transaction kopyalama (audit için)
-    private CustomsTransaction cloneTransaction(CustomsTransaction original) {
-        CustomsTransaction clone = new CustomsTransaction();
-        clone.setFileNo(original.getFileNo());
-        clone.setRecipientName(original.getRecipientName());
-        clone.setCustomsWarehouse(original.getCustomsWarehouse());
-        clone.setGate(original.getGate());
-        clone.setWeight(original.getWeight());
-        clone.setTax(original.getTax());
-        clone.setSenderName(original.getSenderName());
-        clone.setWarehouseArrivalDate(original.getWarehouseArrivalDate());
-        clone.setRegistrationDate(original.getRegistrationDate());
-        clone.setDeclarationNumber(original.getDeclarationNumber());
-        clone.setLineClosureDate(original.getLineClosureDate());
-        clone.setImportProcessingTime(original.getImportProcessingTime());
-        clone.setWithdrawalDate(original.getWithdrawalDate());
-        clone.setDescription(original.getDescription());
-        clone.setDelayReason(original.getDelayReason());
-        clone.setStatus(original.getStatus());
-        return clone;
+    // ✅ Helper: Durum değişikliğinin audit aksiyonu (tekil endpoint'lerle aynı isimler)
+    private String statusAuditAction(TransactionStatus status) {
+        return switch (status) {
+            case COMPLETED -> "COMPLETE_TRANSACTION";
+            case CANCELLED -> "CANCEL_TRANSACTION";
+            default -> "UPDATE_TRANSACTION_STATUS";
+        };
+    }
+
+    // ✅ Helper: Sayfa yanıtı (nextCursor null olabileceği için HashMap)
+    private Map<String, Object> toPageResponse(CursorPage<?> page) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("transactions", page.getItems());
+        response.put("size", page.getItems().size());
+        response.put("hasMore", page.isHasMore());
+        response.put("nextCursor", page.getNextCursor());
+        return response;
     }
 
     // ✅ Helper: Client IP al
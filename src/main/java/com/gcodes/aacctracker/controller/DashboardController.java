@@ -4,11 +4,13 @@ import com.gcodes.aacctracker.model.Company;
 import com.gcodes.aacctracker.model.User;
 import com.gcodes.aacctracker.repository.CompanyRepository;
 import com.gcodes.aacctracker.repository.UserRepository;
+import com.gcodes.aacctracker.service.DashboardService;
 import com.gcodes.aacctracker.service.LimitCheckService;
 import com.gcodes.aacctracker.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -36,16 +38,26 @@ public class DashboardController {
     @Autowired
     private LimitCheckService limitCheckService;
 
+    @Autowired
+    private DashboardService dashboardService;
+
     /**
      * Dashboard istatistikleri (rol bazlı)
      */
     @GetMapping("/stats")
-    public ResponseEntity<?> getDashboardStats() {
+    public ResponseEntity<?> getDashboardStats(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Authentication auth = SecurityContextHolder.getContext().getAuthentication();
             User currentUser = userService.findByEmail(auth.getName())
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
+            // ✅ Koşullu GET: ETag tek sorguluk sürüm damgasından; eşleşirse istatistikler hesaplanmaz
+            String etag = ETags.of("DashboardStats", dashboardService.getStatsVersion(currentUser).toArray());
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ETags.notModified(etag);
+            }
+
             Map<String, Object> stats = new HashMap<>();
             stats.put("userRole", currentUser.getGlobalRole());
 
@@ -108,7 +120,7 @@ public class DashboardController {
                 }
             }
 
-            return ResponseEntity.ok(stats);
+            return ETags.ok(etag, stats);
 
         } catch (Exception e) {
             logger.error("Error getting dashboard stats", e);
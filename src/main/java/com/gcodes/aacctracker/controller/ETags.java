@@ -0,0 +1,66 @@
+package com.gcodes.aacctracker.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Koşullu GET (If-None-Match → 304) için güçlü ETag yardımcıları.
+ * <p>
+ * KURALLAR:
+ * - ETag, yanıtı belirleyen değerlerin (ör. tip + id + updatedAt) MD5 özetidir; gövde serileştirilmeden hesaplanır
+ * - Karşılaştırma yetki kontrolünden SONRA yapılmalıdır
+ * - Yanıtlar "private, no-cache" ile döner: tarayıcı saklar ama her seferinde sunucuya doğrulatır
+ *   (Spring Security'nin varsayılan "no-store" başlığı koşullu istekleri engellerdi)
+ */
+final class ETags {
+
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ETags() {
+    }
+
+    static String of(String type, Object... parts) {
+        StringBuilder source = new StringBuilder(type);
+        for (Object part : parts) {
+            source.append('|').append(part);
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * If-None-Match başlığı verilen ETag'i içeriyor mu? (virgülle ayrılmış liste, "*" ve W/ öneki desteklenir)
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static ResponseEntity<?> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .build();
+    }
+
+    static <T> ResponseEntity<T> ok(String etag, T body) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .body(body);
+    }
+}
@@ -2,10 +2,12 @@ package com.gcodes.aacctracker.controller;
 
 import com.gcodes.aacctracker.dto.PasswordResetRequest;
 import com.gcodes.aacctracker.dto.PasswordResetConfirmRequest;
+import com.gcodes.aacctracker.exception.PasswordHashingBusyException;
 import com.gcodes.aacctracker.service.PasswordResetService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -57,6 +59,11 @@ public class PasswordResetController {
         try {
             passwordResetService.resetPassword(request.getToken(), request.getNewPassword());
             return ResponseEntity.ok("✅ Password has been reset successfully");
+        } catch (PasswordHashingBusyException e) {
+            logger.warn("Password hashing busy while resetting password: {}", e.getMessage());
+            return ResponseEntity.status(503)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("⏳ Server is busy, please try again shortly");
         } catch (Exception e) {
             logger.error("Error resetting password", e);
             return ResponseEntity.badRequest().body("❌ Error resetting password: " + e.getMessage());
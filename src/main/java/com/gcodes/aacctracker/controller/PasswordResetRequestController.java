@@ -3,6 +3,7 @@ package com.gcodes.aacctracker.controller;
 import com.gcodes.aacctracker.dto.PasswordResetRequestCreateDto;
 import com.gcodes.aacctracker.dto.PasswordResetApproveDto;
 import com.gcodes.aacctracker.dto.PasswordResetWithTokenDto;
+import com.gcodes.aacctracker.exception.PasswordHashingBusyException;
 import com.gcodes.aacctracker.model.PasswordResetRequest;
 import com.gcodes.aacctracker.model.User;
 import com.gcodes.aacctracker.service.PasswordResetRequestService;
@@ -11,6 +12,7 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -145,6 +147,11 @@ public class PasswordResetRequestController {
                     "message", "✅ Password has been reset successfully"
             ));
 
+        } catch (PasswordHashingBusyException e) {
+            logger.warn("Password hashing busy while resetting password: {}", e.getMessage());
+            return ResponseEntity.status(503)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "⏳ Server is busy, please try again shortly"));
         } catch (Exception e) {
             logger.error("Error resetting password", e);
             return ResponseEntity.badRequest()
@@ -4,12 +4,12 @@ import com.gcodes.aacctracker.dto.RegisterRequest;
 import com.gcodes.aacctracker.model.GlobalRole;
 import com.gcodes.aacctracker.model.User;
 import com.gcodes.aacctracker.repository.UserRepository;
+import com.gcodes.aacctracker.security.PasswordHashingService;
 import com.gcodes.aacctracker.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -28,7 +28,7 @@ public class SetupController {
     private UserService userService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     /**
      * İlk super admin oluşturma
@@ -55,7 +55,7 @@ public class SetupController {
             User adminUser = new User();
             adminUser.setEmail(request.getEmail());
             adminUser.setUsername(request.getUsername());
-            adminUser.setPassword(passwordEncoder.encode(request.getPassword()));
+            adminUser.setPassword(passwordHashingService.encode(request.getPassword()));
             adminUser.setGlobalRole(GlobalRole.SUPER_ADMIN);
             adminUser.setIsActive(true);
             adminUser.setCompany(null); // SUPER_ADMIN firma bağlantısı yok
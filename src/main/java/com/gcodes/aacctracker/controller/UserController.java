@@ -3,19 +3,21 @@ package com.gcodes.aacctracker.controller;
 import com.gcodes.aacctracker.dto.UserCreateRequest;
 import com.gcodes.aacctracker.dto.UserUpdateRequest;
 import com.gcodes.aacctracker.exception.LimitExceededException;
+import com.gcodes.aacctracker.exception.PasswordHashingBusyException;
 import com.gcodes.aacctracker.model.*;
 import com.gcodes.aacctracker.repository.CompanyRepository;
+import com.gcodes.aacctracker.security.PasswordHashingService;
 import com.gcodes.aacctracker.service.LimitCheckService;
 import com.gcodes.aacctracker.service.UserService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -40,7 +42,7 @@ public class UserController {
     private LimitCheckService limitCheckService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     // ==========================================
     // KULLANICI OLUŞTURMA
@@ -77,7 +79,7 @@ public class UserController {
             User newUser = new User();
             newUser.setEmail(request.getEmail());
             newUser.setUsername(request.getUsername());
-            newUser.setPassword(passwordEncoder.encode(request.getPassword()));
+            newUser.setPassword(passwordHashingService.encode(request.getPassword()));
             newUser.setGlobalRole(request.getGlobalRole());
             newUser.setCompany(company);
             newUser.setIsActive(true);
@@ -97,6 +99,11 @@ public class UserController {
             logger.warn("Limit exceeded while creating user: {}", e.getMessage());
             return ResponseEntity.status(429) // Too Many Requests
                     .body(Map.of("error", e.getMessage()));
+        } catch (PasswordHashingBusyException e) {
+            logger.warn("Password hashing busy while creating user: {}", e.getMessage());
+            return ResponseEntity.status(503)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "⏳ Server is busy, please try again shortly"));
         } catch (Exception e) {
             logger.error("Error creating user", e);
             return ResponseEntity.badRequest()
@@ -138,6 +145,11 @@ public class UserController {
                             "isActive", updatedUser.getIsActive()
                     )
             ));
+        } catch (PasswordHashingBusyException e) {
+            logger.warn("Password hashing busy while updating user: {}", e.getMessage());
+            return ResponseEntity.status(503)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "⏳ Server is busy, please try again shortly"));
         } catch (Exception e) {
             logger.error("Error updating user", e);
             return ResponseEntity.badRequest()
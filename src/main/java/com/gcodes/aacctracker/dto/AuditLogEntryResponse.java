@@ -0,0 +1,28 @@
+package com.gcodes.aacctracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Audit arama/dışa aktarma satırı (JPQL constructor projection).
+ * <p>
+ * Entity ve kullanıcı proxy'si yüklenmez; sadece kullanıcının id ve e-postası seçilir.
+ * Alan sırası AuditLogRepository.ENTRY_SELECT ile aynı olmalıdır.
+ */
+@Getter
+@AllArgsConstructor
+public class AuditLogEntryResponse {
+    private Long id;
+    private LocalDateTime timestamp;
+    private Long userId;
+    private String userEmail;
+    private String action;
+    private String entityType;
+    private Long entityId;
+    private String result;
+    private String ipAddress;
+    private String errorMessage;
+    private String changeDetails;
+}
@@ -0,0 +1,28 @@
+package com.gcodes.aacctracker.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Audit arama filtreleri (query parametrelerinden bağlanır). Boş alanlar filtrelenmez.
+ * <p>
+ * Zaman aralığı yarı açıktır: from dahil, to hariç.
+ */
+@Getter
+@Setter
+public class AuditLogSearchCriteria {
+    private Long userId;
+    private String entityType;
+    private Long entityId;
+    private String action;
+    private String result;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+}
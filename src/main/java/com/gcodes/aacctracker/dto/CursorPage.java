@@ -0,0 +1,34 @@
+package com.gcodes.aacctracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset sayfalama sonucu: sayfadaki kayıtlar ve varsa bir sonraki sayfanın imleci.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+    private final boolean hasMore;
+
+    /**
+     * Sorgu pageSize + 1 satır getirir; fazladan satır varsa bir sonraki sayfa vardır.
+     * Böylece ayrı bir COUNT sorgusuna gerek kalmaz.
+     */
+    public static <T> CursorPage<T> fromOverfetched(List<T> rows, int pageSize,
+                                                    Function<T, KeysetCursor> cursorOf) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null, false);
+        }
+
+        List<T> items = rows.subList(0, pageSize);
+        String nextCursor = cursorOf.apply(items.get(pageSize - 1)).encode();
+        return new CursorPage<>(items, nextCursor, true);
+    }
+}
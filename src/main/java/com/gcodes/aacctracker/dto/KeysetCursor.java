@@ -0,0 +1,48 @@
+package com.gcodes.aacctracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset (cursor) sayfalama için opak imleç.
+ * <p>
+ * Son döndürülen satırın sıralama anahtarını (zaman damgası + id) taşır.
+ * İstemci bu değeri yorumlamaz, bir sonraki istekte aynen geri gönderir.
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetCursor {
+
+    private final LocalDateTime position;
+    private final Long id;
+
+    public String encode() {
+        String raw = position + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * İmleci çözer. Boş imleç ilk sayfa anlamına gelir ve null döner.
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new KeysetCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.gcodes.aacctracker.dto;
+
+import com.gcodes.aacctracker.model.TransactionStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Toplu durum değişikliği isteği.
+ * <p>
+ * İşlemler ya ids listesiyle ya da filtreyle (brokerCompanyId + opsiyonel
+ * clientCompanyId / currentStatus / tescil tarihi aralığı) seçilir; ikisi birlikte verilemez.
+ */
+@Getter
+@Setter
+public class TransactionBulkStatusRequest {
+
+    @NotNull(message = "Target status is required")
+    private TransactionStatus status;
+
+    private List<Long> ids;
+
+    // ===== FİLTRE =====
+    private Long brokerCompanyId;
+    private Long clientCompanyId;
+    private TransactionStatus currentStatus;
+    private LocalDate registrationDateFrom;
+    private LocalDate registrationDateTo;
+
+    public boolean hasIds() {
+        return ids != null && !ids.isEmpty();
+    }
+}
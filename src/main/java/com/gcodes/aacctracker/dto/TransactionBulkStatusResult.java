@@ -0,0 +1,22 @@
+package com.gcodes.aacctracker.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.gcodes.aacctracker.model.TransactionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class TransactionBulkStatusResult {
+
+    private TransactionStatus status;
+    private int updatedCount;
+    private List<Long> transactionIds;
+
+    // İşlem id → güncelleme öncesi durum (audit farkı için; yanıta yazılmaz)
+    @JsonIgnore
+    private Map<Long, TransactionStatus> previousStatuses;
+}
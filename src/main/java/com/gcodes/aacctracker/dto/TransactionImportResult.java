@@ -0,0 +1,40 @@
+package com.gcodes.aacctracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class TransactionImportResult {
+
+    // Yanıtın şişmemesi için raporlanan satır hatası sayısı sınırlıdır
+    public static final int MAX_REPORTED_ERRORS = 500;
+
+    private int totalRows;
+    private int importedRows;
+    private int failedRows;
+    private long durationMs;
+    private boolean errorsTruncated;
+    private List<RowError> errors = new ArrayList<>();
+
+    public void addError(int rowNumber, String fileNo, String message) {
+        failedRows++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(rowNumber, fileNo, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class RowError {
+        private int rowNumber;
+        private String fileNo;
+        private String message;
+    }
+}
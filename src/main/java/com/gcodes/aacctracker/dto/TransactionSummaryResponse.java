@@ -0,0 +1,38 @@
+package com.gcodes.aacctracker.dto;
+
+import com.gcodes.aacctracker.model.TransactionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Liste ekranları için işlem özeti (JPQL constructor projection).
+ * <p>
+ * Sadece listede gösterilen sütunlar ve broker/client id + adı seçilir;
+ * managed entity, lazy proxy veya dirty checking yoktur.
+ * Alan sırası CustomsTransactionRepository.SUMMARY_SELECT ile aynı olmalıdır.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionSummaryResponse {
+    private Long id;
+    private String fileNo;
+    private String recipientName;
+    private String senderName;
+    private String customsWarehouse;
+    private String gate;
+    private String declarationNumber;
+    private LocalDate registrationDate;
+    private LocalDate withdrawalDate;
+    private Integer totalProcessingTime;
+    private String delayReason;
+    private TransactionStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long brokerCompanyId;
+    private String brokerCompanyName;
+    private Long clientCompanyId;
+    private String clientCompanyName;
+}
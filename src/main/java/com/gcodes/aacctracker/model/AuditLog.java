@@ -9,9 +9,12 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "audit_logs",
         indexes = {
-                @Index(name = "idx_user_id", columnList = "user_id"),
-                @Index(name = "idx_entity_type", columnList = "entity_type"),
-                @Index(name = "idx_timestamp", columnList = "timestamp")
+                @Index(name = "idx_timestamp", columnList = "timestamp"),
+                // Arama filtreleri + (timestamp, id) keyset sıralaması (db/changes/006)
+                @Index(name = "idx_audit_user_time", columnList = "user_id, timestamp"),
+                @Index(name = "idx_audit_entity_time", columnList = "entity_type, entity_id, timestamp"),
+                @Index(name = "idx_audit_action_time", columnList = "action, timestamp"),
+                @Index(name = "idx_audit_result_time", columnList = "result, timestamp")
         })
 @Getter
 @Setter
@@ -22,8 +25,9 @@ public class AuditLog {
     private Long id;
 
     // ✅ İşlemi gerçekleştiren kullanıcı
+    // Yabancı anahtar yok: bölümlenmiş (partitioned) tablolarda MySQL FK desteklemez
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id")
+    @JoinColumn(name = "user_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private User performedBy;
 
     // ✅ İşlem adı
@@ -42,9 +46,9 @@ public class AuditLog {
     @Column(nullable = false, updatable = false)
     private LocalDateTime timestamp = LocalDateTime.now();
 
-    // ✅ Değişiklik detayları (JSON formatında)
+    // ✅ Değişiklik detayları (JSON formatında; sadece değişen alanlar)
     @Column(columnDefinition = "LONGTEXT")
-    private String changeDetails;  // {"before": {...}, "after": {...}}
+    private String changeDetails;  // {"diff": {"alan": [eski, yeni]}}
 
     // ✅ İstemci IP adresi
     @Column(length = 50)
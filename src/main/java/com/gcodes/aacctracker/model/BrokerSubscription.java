@@ -3,10 +3,14 @@ package com.gcodes.aacctracker.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "brokerSubscriptions")
 @Table(name = "broker_subscriptions",
         indexes = {
                 @Index(name = "idx_broker_active", columnList = "broker_company_id, is_active")
@@ -14,7 +14,16 @@ import java.time.LocalDateTime;
                 @Index(name = "idx_file_no", columnList = "file_no", unique = true),
                 @Index(name = "idx_broker_company", columnList = "broker_company_id"),
                 @Index(name = "idx_client_company", columnList = "client_company_id"),
-                @Index(name = "idx_created_by", columnList = "created_by_user_id")
+                @Index(name = "idx_created_by", columnList = "created_by_user_id"),
+                // ✅ Keyset sayfalama: (firma, created_at, id) sıralı tarama
+                @Index(name = "idx_broker_created", columnList = "broker_company_id, created_at, id"),
+                @Index(name = "idx_client_created", columnList = "client_company_id, created_at, id"),
+                // ✅ Gecikmeli işlemler: delay_reason taraması yerine has_delay bayrağı
+                @Index(name = "idx_broker_delay_created", columnList = "broker_company_id, has_delay, created_at"),
+                @Index(name = "idx_delay_created", columnList = "has_delay, created_at"),
+                // ✅ Tescil tarihi aralığı: firma kapsamında (registration_date, id) sıralı tarama
+                @Index(name = "idx_broker_registration", columnList = "broker_company_id, registration_date, id"),
+                @Index(name = "idx_client_registration", columnList = "client_company_id, registration_date, id")
         })
 @Getter
 @Setter
@@ -89,6 +98,10 @@ public class CustomsTransaction {
     @Column(name = "delay_reason", length = 500)
     private String delayReason;  // Gecikme Nedeni
 
+    // ✅ delayReason dolu mu? (indekslenebilir bayrak, hasDelay() ile senkron tutulur)
+    @Column(name = "has_delay", nullable = false)
+    private boolean delayed = false;
+
     // ===== METADATA =====
 
     @Enumerated(EnumType.STRING)
@@ -120,9 +133,22 @@ public class CustomsTransaction {
         return this.delayReason != null && !this.delayReason.isEmpty();
     }
 
+    // ✅ Gecikme nedeni değişince has_delay bayrağı da güncellenir
+    public void setDelayReason(String delayReason) {
+        this.delayReason = delayReason;
+        this.delayed = hasDelay();
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.calculateProcessingTime();
+        this.delayed = hasDelay();
+    }
+
     @PreUpdate
     protected void onUpdate() {
         this.updatedAt = LocalDateTime.now();
         this.calculateProcessingTime();
+        this.delayed = hasDelay();
     }
 }
\ No newline at end of file
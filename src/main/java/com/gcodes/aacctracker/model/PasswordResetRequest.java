@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
 @Table(name = "password_reset_requests",
         indexes = {
                 @Index(name = "idx_status", columnList = "status"),
-                @Index(name = "idx_approver_pending", columnList = "approver_id, status")
+                @Index(name = "idx_approver_pending", columnList = "approver_id, status"),
+                @Index(name = "idx_reset_token", columnList = "reset_token")
         })
 @Getter
 @Setter
@@ -0,0 +1,49 @@
+package com.gcodes.aacctracker.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Self-service şifre sıfırlama token'ı (email ile başlatılan akış).
+ * <p>
+ * KURALLAR:
+ * - Admin onaylı sıfırlama istekleri (password_reset_requests) ile ortak değildir; iki akış
+ *   birbirinin token'ını kabul etmez
+ * - Token kullanıldığında satır silinir; süresi dolan satırlar zamanlanmış olarak silinir
+ */
+@Entity
+@Table(name = "password_reset_tokens",
+        indexes = {
+                @Index(name = "idx_reset_token_expires", columnList = "expires_at")
+        })
+@Getter
+@Setter
+public class PasswordResetToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String token;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public PasswordResetToken() {
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return !now.isBefore(expiresAt);
+    }
+}
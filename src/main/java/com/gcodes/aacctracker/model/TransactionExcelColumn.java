@@ -0,0 +1,65 @@
+package com.gcodes.aacctracker.model;
+
+/**
+ * CustomsTransaction'ın Excel karşılığı olan 16 sütun (EXCEL SUTUNLARI).
+ * <p>
+ * Sıra, Excel şablonundaki sütun sırasıdır. Dışa aktarma (CSV/NDJSON)
+ * ve toplu içe aktarma aynı tanımı kullanır.
+ */
+public enum TransactionExcelColumn {
+
+    FILE_NO("Dosya No", "fileNo"),
+    RECIPIENT_NAME("Alıcı", "recipientName"),
+    CUSTOMS_WAREHOUSE("Gümrük Antrepo", "customsWarehouse"),
+    GATE("Kapı", "gate"),
+    WEIGHT("Kilo", "weight"),
+    TAX("Vergi", "tax"),
+    SENDER_NAME("Gönderici", "senderName"),
+    WAREHOUSE_ARRIVAL_DATE("Antrepo & Varış Tarihi", "warehouseArrivalDate"),
+    REGISTRATION_DATE("Tescil Tarihi", "registrationDate"),
+    DECLARATION_NUMBER("Beyanname No", "declarationNumber"),
+    LINE_CLOSURE_DATE("Hat Kapanma Tarihi", "lineClosureDate"),
+    IMPORT_PROCESSING_TIME("İthalat İşlem Süresi", "importProcessingTime"),
+    WITHDRAWAL_DATE("Çekilme Tarihi", "withdrawalDate"),
+    DESCRIPTION("Açıklama", "description"),
+    TOTAL_PROCESSING_TIME("Toplam İşlem Süresi", "totalProcessingTime"),
+    DELAY_REASON("Gecikme Nedeni", "delayReason");
+
+    private final String header;
+    private final String fieldName;
+
+    TransactionExcelColumn(String header, String fieldName) {
+        this.header = header;
+        this.fieldName = fieldName;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    // ✅ Sütun değerini entity'den oku
+    public Object valueOf(CustomsTransaction transaction) {
+        return switch (this) {
+            case FILE_NO -> transaction.getFileNo();
+            case RECIPIENT_NAME -> transaction.getRecipientName();
+            case CUSTOMS_WAREHOUSE -> transaction.getCustomsWarehouse();
+            case GATE -> transaction.getGate();
+            case WEIGHT -> transaction.getWeight();
+            case TAX -> transaction.getTax();
+            case SENDER_NAME -> transaction.getSenderName();
+            case WAREHOUSE_ARRIVAL_DATE -> transaction.getWarehouseArrivalDate();
+            case REGISTRATION_DATE -> transaction.getRegistrationDate();
+            case DECLARATION_NUMBER -> transaction.getDeclarationNumber();
+            case LINE_CLOSURE_DATE -> transaction.getLineClosureDate();
+            case IMPORT_PROCESSING_TIME -> transaction.getImportProcessingTime();
+            case WITHDRAWAL_DATE -> transaction.getWithdrawalDate();
+            case DESCRIPTION -> transaction.getDescription();
+            case TOTAL_PROCESSING_TIME -> transaction.getTotalProcessingTime();
+            case DELAY_REASON -> transaction.getDelayReason();
+        };
+    }
+}
@@ -4,10 +4,14 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Table(name = "users",
         indexes = {
                 @Index(name = "idx_company_role", columnList = "company_id, global_role"),
@@ -52,6 +56,11 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // ✅ YENİ: JWT'lere yazılan sürüm damgası; artırıldığında eski token'lar geçersiz olur
+    @JsonIgnore
+    @Column(name = "token_version", nullable = false)
+    private long tokenVersion = 0;
+
     public User() {
     }
 
@@ -146,6 +155,16 @@ public class User {
         return false;
     }
 
+    /**
+     * Bu kullanıcıya verilmiş tüm token'ları geçersiz kılar.
+     * <p>
+     * Token'lar rol, firma ve aktiflik bilgisini taşıdığı için bu alanlardan biri,
+     * email veya şifre değiştiğinde çağrılmalıdır.
+     */
+    public void revokeIssuedTokens() {
+        this.tokenVersion++;
+    }
+
     @PreUpdate
     protected void onUpdate() {
         this.updatedAt = LocalDateTime.now();
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,17 +39,41 @@ public interface AgencyAgreementRepository extends JpaRepository<AgencyAgreement
     boolean existsByBrokerCompanyAndClientCompanyAndStatus(
             Company brokerCompany, Company clientCompany, AgreementStatus status);
 
-    // ✅ Broker'ın müşteri sayısı (aktif anlaşmalar)
-    @Query("SELECT COUNT(DISTINCT aa.clientCompany) FROM AgencyAgreement aa " +
-            "WHERE aa.brokerCompany = :broker AND aa.status = 'ACTIVE'")
-    long countActiveClientsByBroker(@Param("broker") Company broker);
-
     // ✅ Client'in broker sayısı (aktif anlaşmalar)
     @Query("SELECT COUNT(DISTINCT aa.brokerCompany) FROM AgencyAgreement aa " +
             "WHERE aa.clientCompany = :client AND aa.status = 'ACTIVE'")
     long countActiveBrokersByClient(@Param("client") Company client);
 
+    // ✅ YENİ: Aktif anlaşma indeksi için tüm aktif (broker id, client id) çiftleri
+    @Query("SELECT aa.brokerCompany.id, aa.clientCompany.id FROM AgencyAgreement aa " +
+            "WHERE aa.status = 'ACTIVE'")
+    List<Object[]> findActivePairs();
+
+    // ✅ YENİ: Çift için (başka) aktif anlaşma kaldı mı? Firma entity'leri yüklenmez
+    @Query("SELECT COUNT(aa) > 0 FROM AgencyAgreement aa " +
+            "WHERE aa.brokerCompany.id = :brokerId AND aa.clientCompany.id = :clientId " +
+            "AND aa.status = 'ACTIVE'")
+    boolean existsActiveByBrokerIdAndClientId(@Param("brokerId") Long brokerId,
+                                              @Param("clientId") Long clientId);
+
+    // ✅ YENİ: Koşullu GET için damga - yetki kontrolü ve ETag için yeterli, entity yüklenmez
+    @Query("SELECT aa.brokerCompany.id AS brokerCompanyId, pb.id AS clientParentBrokerId, " +
+            "aa.updatedAt AS updatedAt " +
+            "FROM AgencyAgreement aa JOIN aa.clientCompany c LEFT JOIN c.parentBroker pb " +
+            "WHERE aa.id = :id")
+    Optional<AgreementStamp> findStampById(@Param("id") Long id);
+
     // ✅ Son 10 anlaşma
     @Query("SELECT aa FROM AgencyAgreement aa ORDER BY aa.createdAt DESC LIMIT 10")
     List<AgencyAgreement> findRecentAgreements();
-}
\ No newline at end of file
+
+    // ===== PROJEKSİYONLAR =====
+
+    interface AgreementStamp {
+        Long getBrokerCompanyId();
+
+        Long getClientParentBrokerId();
+
+        LocalDateTime getUpdatedAt();
+    }
+}
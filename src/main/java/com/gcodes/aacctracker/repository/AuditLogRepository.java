@@ -1,16 +1,46 @@
 package com.gcodes.aacctracker.repository;
 
+import com.gcodes.aacctracker.dto.AuditLogEntryResponse;
 import com.gcodes.aacctracker.model.AuditLog;
 import com.gcodes.aacctracker.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+/**
+ * audit_logs aylık olarak timestamp üzerinden bölümlenebilir (db/changes/005).
+ * Zaman aralıklı sorgular timestamp sütununu doğrudan (fonksiyonsuz) karşılaştırmalı;
+ * böylece MySQL sadece aralığa düşen bölümleri okur (partition pruning).
+ */
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
 
+    // ✅ Arama projeksiyonu: entity hydrate edilmez, kullanıcıdan sadece id + e-posta
+    String ENTRY_SELECT = "SELECT new com.gcodes.aacctracker.dto.AuditLogEntryResponse(" +
+            "al.id, al.timestamp, u.id, u.email, al.action, al.entityType, al.entityId, al.result, " +
+            "al.ipAddress, al.errorMessage, al.changeDetails) " +
+            "FROM AuditLog al LEFT JOIN al.performedBy u ";
+
+    // Boş filtreler devre dışı kalır; her filtre bir (sütun, timestamp) bileşik indeksiyle desteklenir
+    // (idx_audit_user_time, idx_audit_entity_time, idx_audit_action_time, idx_audit_result_time)
+    String SEARCH_FILTER = "WHERE (:userId IS NULL OR al.performedBy.id = :userId) " +
+            "AND (:entityType IS NULL OR al.entityType = :entityType) " +
+            "AND (:entityId IS NULL OR al.entityId = :entityId) " +
+            "AND (:action IS NULL OR al.action = :action) " +
+            "AND (:result IS NULL OR al.result = :result) " +
+            "AND (:from IS NULL OR al.timestamp >= :from) " +
+            "AND (:to IS NULL OR al.timestamp < :to) ";
+
+    // MySQL Connector/J, fetch size Integer.MIN_VALUE verildiğinde satırları tek tek stream eder
+    String STREAMING_FETCH_SIZE = "" + Integer.MIN_VALUE;
+
     // ✅ Belirli kullanıcının tüm aktiviteleri
     List<AuditLog> findByPerformedBy(User performedBy);
 
@@ -41,6 +71,15 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
             @Param("entityType") String entityType,
             @Param("entityId") Long entityId);
 
+    // ✅ YENİ: Entity'nin verilen andan sonraki alan farkları (yeniden eskiye; sürüm yeniden oluşturma için)
+    @Query("SELECT al.changeDetails FROM AuditLog al WHERE al.entityType = :entityType " +
+            "AND al.entityId = :entityId AND al.timestamp > :since AND al.changeDetails IS NOT NULL " +
+            "ORDER BY al.timestamp DESC, al.id DESC")
+    List<String> findChangeDetailsSince(
+            @Param("entityType") String entityType,
+            @Param("entityId") Long entityId,
+            @Param("since") LocalDateTime since);
+
     // ✅ Son 10 aktivite
     @Query("SELECT al FROM AuditLog al ORDER BY al.timestamp DESC LIMIT 10")
     List<AuditLog> findRecentActivities();
@@ -50,6 +89,48 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
             "ORDER BY al.timestamp DESC LIMIT 10")
     List<AuditLog> findUserRecentActivities(@Param("user") User user);
 
+    // ✅ YENİ: Audit arama - keyset (cursor) sayfalama, (timestamp, id) DESC
+    // cursorTimestamp null ise ilk sayfa döner. Pageable sadece LIMIT için kullanılır (COUNT yok).
+    @Query(ENTRY_SELECT + SEARCH_FILTER +
+            "AND (:cursorTimestamp IS NULL OR al.timestamp < :cursorTimestamp " +
+            "OR (al.timestamp = :cursorTimestamp AND al.id < :cursorId)) " +
+            "ORDER BY al.timestamp DESC, al.id DESC")
+    List<AuditLogEntryResponse> searchPage(@Param("userId") Long userId,
+                                           @Param("entityType") String entityType,
+                                           @Param("entityId") Long entityId,
+                                           @Param("action") String action,
+                                           @Param("result") String result,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to,
+                                           @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+                                           @Param("cursorId") Long cursorId,
+                                           Pageable limit);
+
+    // ✅ YENİ: Audit dışa aktarma - sonuç kümesi belleğe alınmadan satır satır okunur (eskiden yeniye)
+    // Açık bir transaction içinde tüketilmelidir.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(ENTRY_SELECT + SEARCH_FILTER + "ORDER BY al.timestamp, al.id")
+    Stream<AuditLogEntryResponse> streamSearch(@Param("userId") Long userId,
+                                               @Param("entityType") String entityType,
+                                               @Param("entityId") Long entityId,
+                                               @Param("action") String action,
+                                               @Param("result") String result,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
+
+    // ✅ YENİ: Zaman pencereli son aktiviteler - bölümlenmiş tabloda sadece son ayların bölümleri okunur
+    @Query("SELECT al FROM AuditLog al WHERE al.timestamp >= :since " +
+            "ORDER BY al.timestamp DESC LIMIT 10")
+    List<AuditLog> findRecentActivitiesSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT al FROM AuditLog al WHERE al.performedBy = :user AND al.timestamp >= :since " +
+            "ORDER BY al.timestamp DESC LIMIT 10")
+    List<AuditLog> findUserRecentActivitiesSince(@Param("user") User user, @Param("since") LocalDateTime since);
+
     // ✅ Başarısız işlemler
     List<AuditLog> findByResult(String result);
 
@@ -2,9 +2,12 @@ package com.gcodes.aacctracker.repository;
 
 import com.gcodes.aacctracker.model.Company;
 import com.gcodes.aacctracker.model.CompanyType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
@@ -76,12 +79,19 @@ public interface CompanyRepository extends JpaRepository<Company, Long> {
     @Query("SELECT c FROM Company c WHERE c.companyType = 'CUSTOMS_BROKER' AND c.isActive = TRUE")
     List<Company> findAllActiveBrokers();
 
+    // ✅ Sorgu önbelleği: companies tablosu değişene kadar sonuç bellekten gelir (kayıt ekranı, login)
     @Query("SELECT c FROM Company c WHERE c.companyType = 'CUSTOMS_BROKER' " +
             "AND c.isActive = TRUE AND c.companyCode IS NOT NULL " +
             "ORDER BY c.name ASC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Company> findAllActiveBrokersWithCodes();
 
     @Query("SELECT COUNT(c) FROM Company c WHERE c.companyType = 'CLIENT' " +
             "AND c.parentBroker.id = :brokerId AND c.isActive = TRUE")
     long countActiveClientsByBrokerId(@Param("brokerId") Long brokerId);
-}
\ No newline at end of file
+
+    // ✅ YENİ: Broker → aktif müşteri hiyerarşisi (broker id, client id çiftleri)
+    @Query("SELECT c.parentBroker.id, c.id FROM Company c WHERE c.companyType = 'CLIENT' " +
+            "AND c.parentBroker IS NOT NULL AND c.isActive = TRUE")
+    List<Object[]> findActiveClientPairs();
+}
@@ -1,22 +1,45 @@
 package com.gcodes.aacctracker.repository;
 
+import com.gcodes.aacctracker.dto.TransactionSummaryResponse;
 import com.gcodes.aacctracker.model.Company;
 import com.gcodes.aacctracker.model.CustomsTransaction;
 import com.gcodes.aacctracker.model.TransactionStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CustomsTransactionRepository extends JpaRepository<CustomsTransaction, Long> {
 
+    // ✅ Liste projeksiyonu: sadece özet sütunlar + broker/client id ve adı (entity hydrate edilmez)
+    String SUMMARY_SELECT = "SELECT new com.gcodes.aacctracker.dto.TransactionSummaryResponse(" +
+            "t.id, t.fileNo, t.recipientName, t.senderName, t.customsWarehouse, t.gate, " +
+            "t.declarationNumber, t.registrationDate, t.withdrawalDate, t.totalProcessingTime, " +
+            "t.delayReason, t.status, t.createdAt, t.updatedAt, b.id, b.name, c.id, c.name) " +
+            "FROM CustomsTransaction t JOIN t.brokerCompany b JOIN t.clientCompany c ";
+
+    // MySQL Connector/J, fetch size Integer.MIN_VALUE verildiğinde satırları tek tek stream eder
+    String STREAMING_FETCH_SIZE = "" + Integer.MIN_VALUE;
+
     // ✅ Dosya numarasına göre işlem bul
     Optional<CustomsTransaction> findByFileNo(String fileNo);
 
+    // ✅ YENİ: Verilen dosya numaralarından zaten kayıtlı olanlar (toplu içe aktarma)
+    @Query("SELECT t.fileNo FROM CustomsTransaction t WHERE t.fileNo IN :fileNos")
+    List<String> findExistingFileNos(@Param("fileNos") Collection<String> fileNos);
+
     // ✅ YENİ: İlişkili entity'lerle birlikte getir
     @Query("SELECT t FROM CustomsTransaction t " +
             "LEFT JOIN FETCH t.brokerCompany " +
@@ -25,6 +48,12 @@ public interface CustomsTransactionRepository extends JpaRepository<CustomsTrans
             "WHERE t.id = :id")
     Optional<CustomsTransaction> findByIdWithDetails(@Param("id") Long id);
 
+    // ✅ YENİ: Koşullu GET için damga - yetki kontrolü ve ETag için yeterli, entity yüklenmez
+    @Query("SELECT t.brokerCompany.id AS brokerCompanyId, t.clientCompany.id AS clientCompanyId, " +
+            "t.updatedAt AS updatedAt " +
+            "FROM CustomsTransaction t WHERE t.id = :id")
+    Optional<TransactionStamp> findStampById(@Param("id") Long id);
+
     @Query("SELECT t FROM CustomsTransaction t " +
             "LEFT JOIN FETCH t.brokerCompany " +
             "LEFT JOIN FETCH t.clientCompany " +
@@ -46,6 +75,132 @@ public interface CustomsTransactionRepository extends JpaRepository<CustomsTrans
             "ORDER BY t.createdAt DESC")
     List<CustomsTransaction> findByClientIdWithDetails(@Param("clientId") Long clientId);
 
+    // ✅ YENİ: Broker işlemleri - keyset (cursor) sayfalama
+    // (createdAt, id) DESC sıralı; idx_broker_created indeksi ile desteklenir.
+    // cursorCreatedAt null ise ilk sayfa döner. Pageable sadece LIMIT için kullanılır (COUNT yok).
+    @Query(SUMMARY_SELECT +
+            "WHERE b.id = :brokerId " +
+            "AND (:status IS NULL OR t.status = :status) " +
+            "AND (:createdFrom IS NULL OR t.createdAt >= :createdFrom) " +
+            "AND (:createdTo IS NULL OR t.createdAt < :createdTo) " +
+            "AND (:cursorCreatedAt IS NULL OR t.createdAt < :cursorCreatedAt " +
+            "OR (t.createdAt = :cursorCreatedAt AND t.id < :cursorId)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionSummaryResponse> findBrokerPage(@Param("brokerId") Long brokerId,
+                                                    @Param("status") TransactionStatus status,
+                                                    @Param("createdFrom") LocalDateTime createdFrom,
+                                                    @Param("createdTo") LocalDateTime createdTo,
+                                                    @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                    @Param("cursorId") Long cursorId,
+                                                    Pageable limit);
+
+    // ✅ YENİ: Client işlemleri - keyset (cursor) sayfalama (idx_client_created)
+    @Query(SUMMARY_SELECT +
+            "WHERE c.id = :clientId " +
+            "AND (:status IS NULL OR t.status = :status) " +
+            "AND (:createdFrom IS NULL OR t.createdAt >= :createdFrom) " +
+            "AND (:createdTo IS NULL OR t.createdAt < :createdTo) " +
+            "AND (:cursorCreatedAt IS NULL OR t.createdAt < :cursorCreatedAt " +
+            "OR (t.createdAt = :cursorCreatedAt AND t.id < :cursorId)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionSummaryResponse> findClientPage(@Param("clientId") Long clientId,
+                                                    @Param("status") TransactionStatus status,
+                                                    @Param("createdFrom") LocalDateTime createdFrom,
+                                                    @Param("createdTo") LocalDateTime createdTo,
+                                                    @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                    @Param("cursorId") Long cursorId,
+                                                    Pageable limit);
+
+    // ✅ YENİ: Son işlemler (özet projeksiyon)
+    @Query(SUMMARY_SELECT + "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionSummaryResponse> findRecentSummaries(Pageable limit);
+
+    // ✅ YENİ: Tescil tarihi aralığı - kapsamlı keyset sayfalama
+    // brokerId / clientId null ise o koşul uygulanmaz (TransactionScope); idx_broker_registration / idx_client_registration
+    @Query(SUMMARY_SELECT +
+            "WHERE t.registrationDate BETWEEN :startDate AND :endDate " +
+            "AND (:brokerId IS NULL OR b.id = :brokerId) " +
+            "AND (:clientId IS NULL OR c.id = :clientId) " +
+            "AND (:status IS NULL OR t.status = :status) " +
+            "AND (:cursorDate IS NULL OR t.registrationDate > :cursorDate " +
+            "OR (t.registrationDate = :cursorDate AND t.id > :cursorId)) " +
+            "ORDER BY t.registrationDate, t.id")
+    List<TransactionSummaryResponse> findRegistrationDatePage(@Param("brokerId") Long brokerId,
+                                                              @Param("clientId") Long clientId,
+                                                              @Param("startDate") LocalDate startDate,
+                                                              @Param("endDate") LocalDate endDate,
+                                                              @Param("status") TransactionStatus status,
+                                                              @Param("cursorDate") LocalDate cursorDate,
+                                                              @Param("cursorId") Long cursorId,
+                                                              Pageable limit);
+
+    // ✅ YENİ: Dışa aktarma - sonuç kümesi belleğe alınmadan satır satır okunur
+    // Read-only: snapshot tutulmaz, dirty checking yapılmaz. Açık bir transaction içinde tüketilmelidir.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT t FROM CustomsTransaction t " +
+            "WHERE t.brokerCompany.id = :brokerId " +
+            "AND (:status IS NULL OR t.status = :status) " +
+            "ORDER BY t.createdAt, t.id")
+    Stream<CustomsTransaction> streamByBrokerId(@Param("brokerId") Long brokerId,
+                                                @Param("status") TransactionStatus status);
+
+    // ✅ YENİ: Arama indeksinin yeniden kurulumu - tüm işlemler özet olarak satır satır okunur
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(SUMMARY_SELECT + "ORDER BY t.id")
+    Stream<TransactionSummaryResponse> streamAllSummaries();
+
+    // ✅ YENİ: Dosya numaralarına göre özetler (toplu içe aktarma sonrası indeksleme)
+    @Query(SUMMARY_SELECT + "WHERE t.fileNo IN :fileNos")
+    List<TransactionSummaryResponse> findSummariesByFileNos(@Param("fileNos") Collection<String> fileNos);
+
+    // ✅ YENİ: Id'lere göre özetler (toplu durum değişikliği sonrası indeksleme)
+    @Query(SUMMARY_SELECT + "WHERE t.id IN :ids")
+    List<TransactionSummaryResponse> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    // ✅ YENİ: Toplu durum değişikliği - verilen id'lerden kullanıcının kapsamındakiler (tek sorgu)
+    @Query("SELECT t.id FROM CustomsTransaction t " +
+            "WHERE t.id IN :ids " +
+            "AND (:brokerId IS NULL OR t.brokerCompany.id = :brokerId)")
+    List<Long> findIdsInScope(@Param("ids") Collection<Long> ids,
+                              @Param("brokerId") Long brokerId);
+
+    // ✅ YENİ: Toplu durum değişikliği - filtreye uyan id'ler (limit+1 ile üst sınır kontrolü)
+    @Query("SELECT t.id FROM CustomsTransaction t " +
+            "WHERE (:brokerId IS NULL OR t.brokerCompany.id = :brokerId) " +
+            "AND (:clientId IS NULL OR t.clientCompany.id = :clientId) " +
+            "AND (:currentStatus IS NULL OR t.status = :currentStatus) " +
+            "AND (:registrationFrom IS NULL OR t.registrationDate >= :registrationFrom) " +
+            "AND (:registrationTo IS NULL OR t.registrationDate <= :registrationTo) " +
+            "ORDER BY t.id")
+    List<Long> findIdsByFilter(@Param("brokerId") Long brokerId,
+                               @Param("clientId") Long clientId,
+                               @Param("currentStatus") TransactionStatus currentStatus,
+                               @Param("registrationFrom") LocalDate registrationFrom,
+                               @Param("registrationTo") LocalDate registrationTo,
+                               Pageable limit);
+
+    // ✅ YENİ: Toplu durum güncellemesi öncesi (id, durum) çiftleri (audit farkı için; entity yüklenmez)
+    @Query("SELECT t.id, t.status FROM CustomsTransaction t WHERE t.id IN :ids")
+    List<Object[]> findStatusesByIds(@Param("ids") Collection<Long> ids);
+
+    // ✅ YENİ: Toplu durum güncelleme - tek UPDATE (entity yüklenmez)
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE CustomsTransaction t " +
+            "SET t.status = :status, t.updatedAt = :updatedAt, t.lastModifiedBy = :modifiedBy " +
+            "WHERE t.id IN :ids")
+    int updateStatusByIds(@Param("ids") Collection<Long> ids,
+                          @Param("status") TransactionStatus status,
+                          @Param("updatedAt") LocalDateTime updatedAt,
+                          @Param("modifiedBy") String modifiedBy);
+
     // ✅ YENİ: EntityGraph ile
     @EntityGraph(attributePaths = {"brokerCompany", "clientCompany", "createdByUser"})
     List<CustomsTransaction> findTop10ByOrderByCreatedAtDesc();
@@ -71,15 +226,29 @@ public interface CustomsTransactionRepository extends JpaRepository<CustomsTrans
     // ✅ Tarih aralığında işlemler
     List<CustomsTransaction> findByRegistrationDateBetween(LocalDate startDate, LocalDate endDate);
 
-    // ✅ Gecikme olan işlemler
-    @Query("SELECT ct FROM CustomsTransaction ct WHERE ct.delayReason IS NOT NULL AND ct.delayReason != ''")
+    // ✅ Gecikme olan işlemler (has_delay bayrağı, idx_delay_created)
+    @Query("SELECT ct FROM CustomsTransaction ct WHERE ct.delayed = true")
     List<CustomsTransaction> findTransactionsWithDelay();
 
-    // ✅ Broker'a ait gecikme olan işlemler
-    @Query("SELECT ct FROM CustomsTransaction ct WHERE ct.brokerCompany = :broker " +
-            "AND ct.delayReason IS NOT NULL AND ct.delayReason != ''")
+    // ✅ Broker'a ait gecikme olan işlemler (idx_broker_delay_created)
+    @Query("SELECT ct FROM CustomsTransaction ct WHERE ct.brokerCompany = :broker AND ct.delayed = true")
     List<CustomsTransaction> findDelayedTransactionsByBroker(@Param("broker") Company broker);
 
+    // ✅ YENİ: Gecikmeli işlemler - kapsamlı keyset sayfalama
+    // brokerId / clientId null ise o koşul uygulanmaz (TransactionScope)
+    @Query(SUMMARY_SELECT +
+            "WHERE t.delayed = true " +
+            "AND (:brokerId IS NULL OR b.id = :brokerId) " +
+            "AND (:clientId IS NULL OR c.id = :clientId) " +
+            "AND (:cursorCreatedAt IS NULL OR t.createdAt < :cursorCreatedAt " +
+            "OR (t.createdAt = :cursorCreatedAt AND t.id < :cursorId)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionSummaryResponse> findDelayedPage(@Param("brokerId") Long brokerId,
+                                                     @Param("clientId") Long clientId,
+                                                     @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                     @Param("cursorId") Long cursorId,
+                                                     Pageable limit);
+
     // ✅ Client'in tüm işlemleri (READ ONLY olarak)
     List<CustomsTransaction> findByClientCompanyOrderByCreatedAtDesc(Company clientCompany);
 
@@ -103,4 +272,14 @@ public interface CustomsTransactionRepository extends JpaRepository<CustomsTrans
 
     // ✅ İstatistik: Client'in işlem sayısı
     long countByClientCompany(Company clientCompany);
-}
\ No newline at end of file
+
+    // ===== PROJEKSİYONLAR =====
+
+    interface TransactionStamp {
+        Long getBrokerCompanyId();
+
+        Long getClientCompanyId();
+
+        LocalDateTime getUpdatedAt();
+    }
+}
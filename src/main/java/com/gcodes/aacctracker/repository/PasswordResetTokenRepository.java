@@ -0,0 +1,24 @@
+package com.gcodes.aacctracker.repository;
+
+import com.gcodes.aacctracker.model.PasswordResetToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, Long> {
+
+    Optional<PasswordResetToken> findByToken(String token);
+
+    // Token'ı tek seferlik tüket - sadece süresi dolmamışsa (eşzamanlı kullanımda tek kazanan)
+    @Modifying
+    @Query("DELETE FROM PasswordResetToken prt WHERE prt.id = :id AND prt.expiresAt > :now")
+    int deleteIfValid(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM PasswordResetToken prt WHERE prt.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
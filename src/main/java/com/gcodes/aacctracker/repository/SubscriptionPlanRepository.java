@@ -1,13 +1,18 @@
 package com.gcodes.aacctracker.repository;
 
 import com.gcodes.aacctracker.model.SubscriptionPlan;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface SubscriptionPlanRepository extends JpaRepository<SubscriptionPlan, Long> {
 
+    // ✅ Sorgu önbelleği: planlar nadiren değişir
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<SubscriptionPlan> findByIsActiveTrue();
 
     Optional<SubscriptionPlan> findByName(String name);
@@ -5,9 +5,11 @@ import com.gcodes.aacctracker.model.GlobalRole;
 import com.gcodes.aacctracker.model.User;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,18 +25,40 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.company WHERE u.email = :email")
     Optional<User> findByEmailWithCompany(@Param("email") String email);
 
+    // ✅ YENİ: Kimlik doğrulama - yetki kontrollerinin ihtiyaç duyduğu firma grafiği ile birlikte
+    @Query("SELECT u FROM User u " +
+            "LEFT JOIN FETCH u.company c " +
+            "LEFT JOIN FETCH c.parentBroker " +
+            "WHERE u.email = :email")
+    Optional<User> findByEmailWithCompanyDetails(@Param("email") String email);
+
     @Query("SELECT u FROM User u " +
             "LEFT JOIN FETCH u.company c " +
             "LEFT JOIN FETCH c.parentBroker " +
             "WHERE u.id = :id")
     Optional<User> findByIdWithCompanyDetails(@Param("id") Long id);
 
+    // ✅ YENİ: Sadece id (kullanıcı önbelleği email'i id'ye çözer, kaydı id ile yükler)
+    @Query("SELECT u.id FROM User u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
     // ✅ YENİ: Şirket kullanıcılarını tek sorguda getir
     @Query("SELECT DISTINCT u FROM User u " +
             "LEFT JOIN FETCH u.company " +
             "WHERE u.company.id = :companyId AND u.isActive = true")
     List<User> findByCompanyIdWithDetails(@Param("companyId") Long companyId);
 
+    // ✅ YENİ: Birden fazla şirketin kullanıcılarını tek sorguda getir
+    @Query("SELECT u FROM User u " +
+            "LEFT JOIN FETCH u.company " +
+            "WHERE u.company.id IN :companyIds AND u.isActive = true")
+    List<User> findActiveByCompanyIdIn(@Param("companyIds") Collection<Long> companyIds);
+
+    @Query("SELECT u FROM User u " +
+            "LEFT JOIN FETCH u.company " +
+            "WHERE u.company.id IN :companyIds AND u.isActive = false")
+    List<User> findInactiveByCompanyIdIn(@Param("companyIds") Collection<Long> companyIds);
+
     // ✅ YENİ: EntityGraph kullanarak
     @EntityGraph(attributePaths = {"company", "company.parentBroker"})
     List<User> findAllByIsActiveTrue();
@@ -45,6 +69,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.email = :identifier OR u.username = :identifier")
     Optional<User> findByEmailOrUsername(@Param("identifier") String identifier);
 
+    // ✅ YENİ: Şifre hash'ini sadece hâlâ beklenen değerdeyse değiştir (eşzamanlı şifre değişikliğini ezmez)
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :currentHash")
+    int updatePasswordHash(@Param("id") Long id,
+                           @Param("currentHash") String currentHash,
+                           @Param("newHash") String newHash);
+
     // ===== ROL BAZLI SORGULAR =====
 
     long countByGlobalRole(GlobalRole globalRole);
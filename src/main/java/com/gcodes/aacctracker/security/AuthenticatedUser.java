@@ -0,0 +1,85 @@
+package com.gcodes.aacctracker.security;
+
+import com.gcodes.aacctracker.model.CompanyType;
+import com.gcodes.aacctracker.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * SecurityContext'teki principal.
+ * <p>
+ * Domain kullanıcısını taşır; böylece controller'lar aynı istekte kullanıcıyı email ile tekrar sorgulamaz.
+ * <p>
+ * KURALLAR:
+ * - Yeni formattaki token'larda kullanıcı veritabanından yüklenmez, token claim'lerinden kurulur
+ *   (id, email, rol, firma id/tipi, parent broker id). Firma adı gibi diğer alanlar boştur
+ * - Eski token'larda kullanıcı, kullanıcı önbelleğindeki snapshot'tan kurulur
+ * - Her iki durumda da entity detached'tır; sadece ilişki referansı (FK) olarak kullanılmalı, kaydedilmemelidir
+ */
+public class AuthenticatedUser extends org.springframework.security.core.userdetails.User {
+
+    private final transient User user;
+
+    public AuthenticatedUser(User user, Collection<? extends GrantedAuthority> authorities) {
+        super(user.getEmail(), user.getPassword() != null ? user.getPassword() : "", user.getIsActive(),
+                true, true, true, authorities);
+        this.user = user;
+    }
+
+    /**
+     * Claim'leri taşıyan bir token'dan principal oluşturur (veritabanı erişimi yok).
+     */
+    public static AuthenticatedUser fromClaims(JwtClaims claims) {
+        User user = new User();
+        user.setId(claims.getUserId());
+        user.setEmail(claims.getSubject());
+        user.setGlobalRole(claims.getRole());
+        user.setIsActive(true);
+        user.setTokenVersion(claims.getVersion());
+
+        // Broker kullanıcılarında firma ile broker aynıdır; client kullanıcılarında broker parent'tır
+        Long companyId = claims.getCompanyId();
+        boolean broker = companyId != null && companyId.equals(claims.getBrokerCompanyId());
+        user.setCompany(UserSnapshot.companyStub(companyId,
+                broker ? CompanyType.CUSTOMS_BROKER : CompanyType.CLIENT,
+                broker ? null : claims.getBrokerCompanyId()));
+
+        return new AuthenticatedUser(user, authoritiesOf(user));
+    }
+
+    /**
+     * Önbellekteki kullanıcı kaydından principal oluşturur (veritabanı erişimi yok).
+     */
+    public static AuthenticatedUser fromSnapshot(UserSnapshot snapshot) {
+        User user = snapshot.toUser(snapshot.companyStub());
+        return new AuthenticatedUser(user, authoritiesOf(user));
+    }
+
+    /**
+     * Kullanıcının yetkilerini (authorities) oluştur
+     */
+    public static List<GrantedAuthority> authoritiesOf(User user) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(new SimpleGrantedAuthority("ROLE_" + user.getGlobalRole().name()));
+
+        if (user.isSuperAdmin()) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_SUPER_ADMIN"));
+        }
+
+        if (user.getCompany() != null) {
+            String companyRole = "ROLE_" + user.getGlobalRole().name() +
+                    "_COMPANY_" + user.getCompany().getId();
+            authorities.add(new SimpleGrantedAuthority(companyRole));
+        }
+
+        return authorities;
+    }
+
+    public User getUser() {
+        return user;
+    }
+}
@@ -1,5 +1,6 @@
 package com.gcodes.aacctracker.security;
 
+import com.gcodes.aacctracker.service.UserCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,11 +23,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
     private final JwtTokenProvider jwtTokenProvider;
+    private final UserCache userCache;
     private final UserDetailsService userDetailsService;
 
     public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider,
+                                   UserCache userCache,
                                    @Lazy UserDetailsService userDetailsService) {
         this.jwtTokenProvider = jwtTokenProvider;
+        this.userCache = userCache;
         this.userDetailsService = userDetailsService;
     }
 
@@ -43,18 +47,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = resolveToken(request);
 
-        if (token != null && jwtTokenProvider.validateToken(token)) {
-            String email = jwtTokenProvider.getEmailFromToken(token);
+        // Token tek seferde doğrulanır ve parse edilir (geçersizse null)
+        JwtClaims claims = token != null ? jwtTokenProvider.verify(token) : null;
+
+        if (claims != null) {
+            String email = claims.getSubject();
 
             if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 try {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+                    UserDetails userDetails = resolvePrincipal(claims);
 
-                    UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    if (userDetails != null) {
+                        UsernamePasswordAuthenticationToken authentication =
+                                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    logger.debug("Authentication set for user: {}", email);
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                        logger.debug("Authentication set for user: {}", email);
+                    } else {
+                        logger.debug("Revoked token rejected for user: {}", email);
+                    }
                 } catch (Exception e) {
                     logger.error("Error authenticating user: {}", e.getMessage());
                 }
@@ -64,6 +75,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Claim taşıyan token'larda principal token'dan kurulur; kullanıcı önbelleğine sadece
+     * aktiflik ve sürüm kontrolü için bakılır. Kullanıcı pasifse veya sürüm eşleşmezse null döner.
+     * Eski formattaki token'larda kullanıcı email ile yüklenir.
+     */
+    private UserDetails resolvePrincipal(JwtClaims claims) {
+        if (!claims.hasUserClaims()) {
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+
+        boolean current = userCache.findById(claims.getUserId())
+                .filter(UserSnapshot::isActive)
+                .map(snapshot -> snapshot.getTokenVersion() == claims.getVersion())
+                .orElse(false);
+
+        return current ? AuthenticatedUser.fromClaims(claims) : null;
+    }
+
     private String resolveToken(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
@@ -0,0 +1,85 @@
+package com.gcodes.aacctracker.security;
+
+import com.gcodes.aacctracker.model.GlobalRole;
+
+import java.time.Instant;
+
+/**
+ * Doğrulanmış bir JWT'nin uygulamanın kullandığı alanları.
+ * <p>
+ * Değişmezdir; doğrulama önbelleğinde istekler arasında paylaşılır.
+ * Kullanıcı alanları (id, rol, firma, sürüm) eski formatta üretilmiş token'larda null'dır.
+ */
+public final class JwtClaims {
+
+    private final String subject;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+    private final Long userId;
+    private final GlobalRole role;
+    private final Long companyId;
+    private final Long brokerCompanyId;
+    private final Long version;
+
+    public JwtClaims(String subject, Instant issuedAt, Instant expiresAt) {
+        this(subject, issuedAt, expiresAt, null, null, null, null, null);
+    }
+
+    public JwtClaims(String subject, Instant issuedAt, Instant expiresAt,
+                     Long userId, GlobalRole role, Long companyId, Long brokerCompanyId, Long version) {
+        this.subject = subject;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+        this.userId = userId;
+        this.role = role;
+        this.companyId = companyId;
+        this.brokerCompanyId = brokerCompanyId;
+        this.version = version;
+    }
+
+    // Token üretilirken subject olarak kullanıcının email'i yazılır
+    public String getSubject() {
+        return subject;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public GlobalRole getRole() {
+        return role;
+    }
+
+    // SUPER_ADMIN için null
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    // Broker kullanıcıları için kendi firması, client kullanıcıları için parent broker
+    public Long getBrokerCompanyId() {
+        return brokerCompanyId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Principal'ı veritabanına gitmeden oluşturmaya yetecek alanlar var mı?
+     */
+    public boolean hasUserClaims() {
+        return userId != null && role != null && version != null;
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
@@ -1,64 +1,174 @@
 package com.gcodes.aacctracker.security;
 
+import com.gcodes.aacctracker.model.Company;
+import com.gcodes.aacctracker.model.GlobalRole;
+import com.gcodes.aacctracker.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 
+/**
+ * JWT üretimi ve doğrulaması.
+ * <p>
+ * KURALLAR:
+ * - İmza anahtarı ve parser açılışta bir kez oluşturulur (ikisi de değişmez ve thread-safe)
+ * - Token tek seferde parse edilir; sonuç tipli JwtClaims olarak döner
+ * - Yakın zamanda doğrulanmış token'lar SHA-256 özetleriyle, kendi son kullanma anlarına kadar önbellekte tutulur
+ *   (ham token bellekte saklanmaz)
+ * - Token kullanıcı id, rol, firma/broker id ve sürüm damgası taşır; eski formattaki token'larda bu alanlar null'dır
+ */
 @Component
 public class JwtTokenProvider {
 
+    private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
+
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_COMPANY_ID = "cid";
+    private static final String CLAIM_BROKER_COMPANY_ID = "bid";
+    private static final String CLAIM_VERSION = "ver";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
     @Value("${jwt.expiration}")
     private long validityInMilliseconds;
 
-    private SecretKey getSigningKey() {
+    @Value("${jwt.verification-cache.max-size:10000}")
+    private long verificationCacheMaxSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, JwtClaims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
         // Secret en az 256 bit (32 karakter) olmalı
         if (secretKey.length() < 32) {
             throw new IllegalArgumentException("JWT secret must be at least 32 characters");
         }
-        return Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verificationCacheMaxSize)
+                .expireAfter(new Expiry<String, JwtClaims>() {
+                    @Override
+                    public long expireAfterCreate(String key, JwtClaims claims, long currentTime) {
+                        return nanosUntilExpiry(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, JwtClaims claims, long currentTime,
+                                                  long currentDuration) {
+                        return nanosUntilExpiry(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, JwtClaims claims, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
-    public String generateToken(String email) {
+    /**
+     * Kullanıcı için token üretir.
+     * <p>
+     * Token, principal'ın veritabanına gitmeden oluşturulabilmesi için kullanıcı id'si, rolü,
+     * firma/broker id'leri ve sürüm damgasını taşır. Kullanıcının firması (ve client ise
+     * parent broker'ı) erişilebilir olmalıdır.
+     */
+    public String generateToken(User user) {
+        Company company = user.getCompany();
+        Company brokerCompany = user.getBrokerCompany();
+
         return Jwts.builder()
-                .setSubject(email)
+                .setSubject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getGlobalRole().name())
+                .claim(CLAIM_COMPANY_ID, company != null ? company.getId() : null)
+                .claim(CLAIM_BROKER_COMPANY_ID, brokerCompany != null ? brokerCompany.getId() : null)
+                .claim(CLAIM_VERSION, user.getTokenVersion())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + validityInMilliseconds))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+    /**
+     * Token'ı doğrular. Geçersiz, süresi dolmuş veya imzası hatalı token için null döner.
+     */
+    public JwtClaims verify(String token) {
+        String digest = digest(token);
+
+        JwtClaims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && !cached.isExpired(Instant.now())) {
+            return cached;
+        }
+
+        JwtClaims claims = parse(token);
+        if (claims != null && claims.getExpiresAt() != null) {
+            verifiedTokens.put(digest, claims);
+        }
+        return claims;
+    }
+
+    // Önbelleği atlayarak imzayı doğrular ve token'ı parse eder
+    JwtClaims parse(String token) {
+        try {
+            Claims body = parser.parseClaimsJws(token).getBody();
+            String role = body.get(CLAIM_ROLE, String.class);
+
+            return new JwtClaims(
+                    body.getSubject(),
+                    body.getIssuedAt() != null ? body.getIssuedAt().toInstant() : null,
+                    body.getExpiration() != null ? body.getExpiration().toInstant() : null,
+                    body.get(CLAIM_USER_ID, Long.class),
+                    role != null ? GlobalRole.valueOf(role) : null,
+                    body.get(CLAIM_COMPANY_ID, Long.class),
+                    body.get(CLAIM_BROKER_COMPANY_ID, Long.class),
+                    body.get(CLAIM_VERSION, Long.class)
+            );
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Token validation failed: {} - {}", e.getClass().getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static long nanosUntilExpiry(JwtClaims claims) {
+        long millis = claims.getExpiresAt().toEpochMilli() - System.currentTimeMillis();
+        return Math.max(0, millis) * 1_000_000L;
     }
 
-    public boolean validateToken(String token) {
+    private static String digest(String token) {
         try {
-            System.out.println("🔍 Validating token: " + token.substring(0, Math.min(20, token.length())) + "...");
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            System.out.println("✅ Token validation successful");
-            return true;
-        } catch (Exception e) {
-            System.out.println("❌ Token validation failed: " + e.getClass().getSimpleName() + " - " + e.getMessage());
-            e.printStackTrace();
-            return false;
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
-}
\ No newline at end of file
+}
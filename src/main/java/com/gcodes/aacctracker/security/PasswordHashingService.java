@@ -0,0 +1,147 @@
+package com.gcodes.aacctracker.security;
+
+import com.gcodes.aacctracker.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Şifre hash'leme (BCrypt) için sınırlı, ölçülen iş havuzu.
+ * <p>
+ * KURALLAR:
+ * - Hash'leme/doğrulama sabit sayıda thread'de çalışır; istek thread'leri CPU'yu tüketmez
+ * - Kuyruk doluysa veya iş zaman aşımına uğrarsa hemen {@link PasswordHashingBusyException} fırlatılır (controller'da 503)
+ * - Metrikler: executor.* (name=password.hashing; kuyruk bekleme, çalışma süresi, kuyruk boyu), password.hashing.rejected
+ * - Saklanan hash'in maliyeti yapılandırılan BCrypt maliyetinden farklıysa {@link #needsRehash(String)} true döner;
+ *   girişte şifre yeni maliyetle yeniden hash'lenir
+ */
+@Component
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    // $2a$10$... → maliyet 10
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Value("${security.password.hashing.threads:0}")
+    private int threads;
+
+    @Value("${security.password.hashing.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${security.password.hashing.timeout:5s}")
+    private Duration timeout;
+
+    @Autowired
+    @Lazy
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor pool;
+    private ExecutorService executor;
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        // 0 → işlemci sayısı kadar thread
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        pool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "password.hashing");
+        rejected = Counter.builder("password.hashing.rejected")
+                .description("Password hashing tasks rejected because the pool was saturated or timed out")
+                .register(meterRegistry);
+
+        logger.info("Password hashing pool started: {} threads, queue capacity {}, BCrypt strength {}",
+                poolSize, queueCapacity, bcryptStrength);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Saklanan BCrypt hash'inin maliyeti yapılandırılan maliyetten farklı mı?
+     * BCrypt olmayan (tanınmayan) hash'ler için false döner.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != bcryptStrength;
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException("Password hashing capacity exceeded");
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingBusyException("Password hashing timed out");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.gcodes.aacctracker.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -46,10 +47,13 @@ public class SecurityConfig {
                         .requestMatchers("/api/setup/**").permitAll()
                         .requestMatchers("/api/health").permitAll()
                         .requestMatchers("/api/cors-test").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
 
                         // ✅ SUPER_ADMIN only endpoints
                         .requestMatchers("/api/companies/broker").hasRole("SUPER_ADMIN")
                         .requestMatchers("/api/users/create").hasRole("SUPER_ADMIN")
+                        .requestMatchers("/api/audit-logs/**").hasRole("SUPER_ADMIN")
+                        .requestMatchers("/actuator/**").hasRole("SUPER_ADMIN")
 
                         // ✅ Authenticated endpoints
                         .requestMatchers("/api/transactions/**").authenticated()
@@ -65,9 +69,10 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // ✅ Maliyet yapılandırılabilir; değiştiğinde eski hash'ler girişte yeniden hash'lenir (PasswordHashingService)
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int bcryptStrength) {
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -76,10 +81,10 @@ public class SecurityConfig {
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.gcodes.aacctracker.security;
+
+import com.gcodes.aacctracker.model.Company;
+import com.gcodes.aacctracker.model.CompanyType;
+import com.gcodes.aacctracker.model.GlobalRole;
+import com.gcodes.aacctracker.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Kullanıcı kaydının değişmez, persistence context'ten bağımsız kopyası.
+ * <p>
+ * KURALLAR:
+ * - Kullanıcı önbelleğinde istekler arasında paylaşılır; hiçbir zaman değiştirilmez
+ * - Firma sadece id/tip/parent broker id olarak tutulur (firma adı vb. değişiklikleri önbelleği bayatlatmaz)
+ * - Şifre hash'i tutulmaz; kimlik doğrulama hash'i her seferinde veritabanından okur (UserService.findForLogin)
+ * - Çağıranlara her seferinde yeni bir User kopyası verilir; kopya üzerindeki değişiklikler önbelleğe yansımaz
+ */
+public final class UserSnapshot {
+
+    private final Long id;
+    private final String email;
+    private final String username;
+    private final GlobalRole globalRole;
+    private final boolean active;
+    private final Boolean emailVerified;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final long tokenVersion;
+    private final Long companyId;
+    private final CompanyType companyType;
+    private final Long parentBrokerId;
+
+    private UserSnapshot(User user) {
+        this.id = user.getId();
+        this.email = user.getEmail();
+        this.username = user.getUsername();
+        this.globalRole = user.getGlobalRole();
+        this.active = Boolean.TRUE.equals(user.getIsActive());
+        this.emailVerified = user.getEmailVerified();
+        this.createdAt = user.getCreatedAt();
+        this.updatedAt = user.getUpdatedAt();
+        this.tokenVersion = user.getTokenVersion();
+
+        Company company = user.getCompany();
+        this.companyId = company != null ? company.getId() : null;
+        this.companyType = company != null ? company.getCompanyType() : null;
+        this.parentBrokerId = company != null && company.getParentBroker() != null
+                ? company.getParentBroker().getId() : null;
+    }
+
+    /**
+     * Firma ve parent broker'ı fetch edilmiş bir kullanıcıdan snapshot alır.
+     */
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(user);
+    }
+
+    /**
+     * Snapshot'tan yeni bir (detached) User oluşturur. Şifre alanı boştur.
+     *
+     * @param company Kullanıcıya bağlanacak firma (referans/proxy veya {@link #companyStub()})
+     */
+    public User toUser(Company company) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setUsername(username);
+        user.setGlobalRole(globalRole);
+        user.setIsActive(active);
+        user.setEmailVerified(emailVerified);
+        user.setCreatedAt(createdAt);
+        user.setUpdatedAt(updatedAt);
+        user.setTokenVersion(tokenVersion);
+        user.setCompany(company);
+        return user;
+    }
+
+    /**
+     * Yetki kontrollerine yetecek kadar doldurulmuş firma (id, tip, parent broker id).
+     */
+    public Company companyStub() {
+        return companyStub(companyId, companyType, parentBrokerId);
+    }
+
+    static Company companyStub(Long companyId, CompanyType companyType, Long parentBrokerId) {
+        if (companyId == null) {
+            return null;
+        }
+
+        Company company = new Company();
+        company.setId(companyId);
+        company.setCompanyType(companyType);
+
+        if (parentBrokerId != null) {
+            Company parentBroker = new Company();
+            parentBroker.setId(parentBrokerId);
+            parentBroker.setCompanyType(CompanyType.CUSTOMS_BROKER);
+            company.setParentBroker(parentBroker);
+        }
+        return company;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public GlobalRole getGlobalRole() {
+        return globalRole;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+
+    // SUPER_ADMIN için null
+    public Long getCompanyId() {
+        return companyId;
+    }
+}
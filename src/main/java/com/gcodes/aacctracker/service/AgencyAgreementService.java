@@ -5,6 +5,7 @@ import com.gcodes.aacctracker.model.AgreementStatus;
 import com.gcodes.aacctracker.model.Company;
 import com.gcodes.aacctracker.model.User;
 import com.gcodes.aacctracker.repository.AgencyAgreementRepository;
+import com.gcodes.aacctracker.repository.AgencyAgreementRepository.AgreementStamp;
 import com.gcodes.aacctracker.repository.CompanyRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +30,9 @@ public class AgencyAgreementService {
     @Autowired
     private CompanyRepository companyRepository;
 
+    @Autowired
+    private AgreementIndex agreementIndex;
+
     // ✅ YENİ: Anlaşma oluşturma
     public AgencyAgreement createAgreement(Long brokerId, Long clientId, User createdBy) {
         // ✅ Broker ve Client firmalarını getir
@@ -64,6 +68,7 @@ public class AgencyAgreementService {
         agreement.setAgreementNumber(generateAgreementNumber());
 
         AgencyAgreement saved = agencyAgreementRepository.save(agreement);
+        agreementIndex.setActiveAfterCommit(brokerId, clientId, true);
         logger.info("Agreement created: {} - Broker: {}, Client: {}",
                 saved.getAgreementNumber(), broker.getName(), client.getName());
 
@@ -83,6 +88,7 @@ public class AgencyAgreementService {
         agreement.setNotes(reason);
 
         AgencyAgreement updated = agencyAgreementRepository.save(agreement);
+        refreshIndexAfterCommit(updated);
         logger.info("Agreement suspended: {} - Reason: {}", agreement.getAgreementNumber(), reason);
 
         return updated;
@@ -98,6 +104,7 @@ public class AgencyAgreementService {
         agreement.setNotes(reason);
 
         AgencyAgreement updated = agencyAgreementRepository.save(agreement);
+        refreshIndexAfterCommit(updated);
         logger.info("Agreement terminated: {} - Reason: {}", agreement.getAgreementNumber(), reason);
 
         return updated;
@@ -116,6 +123,7 @@ public class AgencyAgreementService {
         agreement.setEndDate(null);
 
         AgencyAgreement updated = agencyAgreementRepository.save(agreement);
+        agreementIndex.setActiveAfterCommit(updated.getBrokerCompany().getId(), updated.getClientCompany().getId(), true);
         logger.info("Agreement reactivated: {}", agreement.getAgreementNumber());
 
         return updated;
@@ -153,25 +161,14 @@ public class AgencyAgreementService {
         return agencyAgreementRepository.findByClientCompanyAndStatus(client, AgreementStatus.ACTIVE);
     }
 
-    // ✅ Broker ve Client arasında aktif anlaşma var mı?
+    // ✅ Broker ve Client arasında aktif anlaşma var mı? (bellek içi indeks, sorgu yok)
     public boolean hasActiveAgreement(Long brokerId, Long clientId) {
-        Company broker = companyRepository.findById(brokerId).orElse(null);
-        Company client = companyRepository.findById(clientId).orElse(null);
-
-        if (broker == null || client == null) {
-            return false;
-        }
-
-        return agencyAgreementRepository.existsByBrokerCompanyAndClientCompanyAndStatus(
-                broker, client, AgreementStatus.ACTIVE);
+        return agreementIndex.isActive(brokerId, clientId);
     }
 
-    // ✅ Broker'ın aktif müşteri sayısı
+    // ✅ Broker'ın aktif müşteri sayısı (bellek içi indeks, sorgu yok)
     public long getBrokerActiveClientCount(Long brokerId) {
-        Company broker = companyRepository.findById(brokerId)
-                .orElseThrow(() -> new RuntimeException("Broker company not found"));
-
-        return agencyAgreementRepository.countActiveClientsByBroker(broker);
+        return agreementIndex.countActiveClients(brokerId);
     }
 
     // ✅ Client'in aktif broker sayısı
@@ -182,12 +179,29 @@ public class AgencyAgreementService {
         return agencyAgreementRepository.countActiveBrokersByClient(client);
     }
 
+    /**
+     * Anlaşma aktiflikten çıktığında çift için başka aktif anlaşma kalıp kalmadığını
+     * (bu transaction'ın değişikliğini görerek) kontrol eder ve indeksi commit sonrası günceller.
+     */
+    private void refreshIndexAfterCommit(AgencyAgreement agreement) {
+        Long brokerId = agreement.getBrokerCompany().getId();
+        Long clientId = agreement.getClientCompany().getId();
+
+        boolean stillActive = agencyAgreementRepository.existsActiveByBrokerIdAndClientId(brokerId, clientId);
+        agreementIndex.setActiveAfterCommit(brokerId, clientId, stillActive);
+    }
+
     // ✅ Anlaşma detaylarını getir
     public AgencyAgreement getAgreementById(Long agreementId) {
         return agencyAgreementRepository.findById(agreementId)
                 .orElseThrow(() -> new RuntimeException("Agreement not found"));
     }
 
+    // ✅ Koşullu GET damgası (broker id, client'ın broker'ı, updatedAt); anlaşma yüklenmez
+    public Optional<AgreementStamp> findAgreementStamp(Long agreementId) {
+        return agencyAgreementRepository.findStampById(agreementId);
+    }
+
     // ✅ Anlaşma numarasına göre getir
     public Optional<AgencyAgreement> getAgreementByNumber(String agreementNumber) {
         return agencyAgreementRepository.findByAgreementNumber(agreementNumber);
@@ -0,0 +1,248 @@
+package com.gcodes.aacctracker.service;
+
+import com.gcodes.aacctracker.repository.AgencyAgreementRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aktif acentelik anlaşmalarının (broker id → client id kümesi) bellek içi indeksi.
+ * <p>
+ * KURALLAR:
+ * - Açılışta (sunucu istek almadan önce) veritabanından tek sorguyla yüklenir
+ * - Anlaşma değişiklikleri indekse commit sonrasında yansır; geri alınan bir yazma indeksi değiştirmez
+ * - Broker başına küme değişmezdir; yazmalar kümeyi kopyalayıp değiştirir (okumalar kilitsizdir)
+ * - İndeks periyodik olarak veritabanıyla yeniden eşitlenir (başka instance'ların veya elle yapılan değişiklikler için)
+ */
+@Component
+public class AgreementIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgreementIndex.class);
+
+    @Autowired
+    private AgencyAgreementRepository agreementRepository;
+
+    private final Map<Long, ClientSet> clientsByBroker = new ConcurrentHashMap<>();
+
+    // Yeniden eşitleme sırasında gelen yazmaları fark etmek için
+    private final AtomicLong modifications = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        long startTime = System.currentTimeMillis();
+        clientsByBroker.putAll(loadFromDatabase());
+
+        logger.info("Agreement index loaded: {} brokers, {} active pairs in {} ms",
+                clientsByBroker.size(), totalPairs(), System.currentTimeMillis() - startTime);
+    }
+
+    // ==========================================
+    // OKUMA
+    // ==========================================
+
+    public boolean isActive(Long brokerId, Long clientId) {
+        if (brokerId == null || clientId == null) {
+            return false;
+        }
+        ClientSet clients = clientsByBroker.get(brokerId);
+        return clients != null && clients.contains(clientId);
+    }
+
+    public Set<Long> getActiveClientIds(Long brokerId) {
+        ClientSet clients = brokerId != null ? clientsByBroker.get(brokerId) : null;
+        Set<Long> result = new HashSet<>();
+        if (clients != null) {
+            for (long clientId : clients.toArray()) {
+                result.add(clientId);
+            }
+        }
+        return result;
+    }
+
+    public long countActiveClients(Long brokerId) {
+        ClientSet clients = brokerId != null ? clientsByBroker.get(brokerId) : null;
+        return clients != null ? clients.size() : 0;
+    }
+
+    // ==========================================
+    // YAZMA
+    // ==========================================
+
+    /**
+     * Çiftin aktiflik durumunu, çevreleyen transaction commit edildikten sonra indekse yazar.
+     */
+    public void setActiveAfterCommit(Long brokerId, Long clientId, boolean active) {
+        if (brokerId == null || clientId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> setActive(brokerId, clientId, active));
+    }
+
+    private synchronized void setActive(long brokerId, long clientId, boolean active) {
+        modifications.incrementAndGet();
+        clientsByBroker.compute(brokerId, (key, clients) -> {
+            ClientSet current = clients != null ? clients : ClientSet.EMPTY;
+            ClientSet updated = active ? current.with(clientId) : current.without(clientId);
+            return updated.size() > 0 ? updated : null;
+        });
+    }
+
+    /**
+     * İndeksi veritabanıyla yeniden eşitler. Yükleme sırasında yazma olduysa
+     * sonuç atılır (bir sonraki turda tekrar denenir).
+     */
+    @Scheduled(initialDelayString = "${agreements.index.resync-interval:PT10M}",
+            fixedDelayString = "${agreements.index.resync-interval:PT10M}")
+    public void resync() {
+        long before = modifications.get();
+        Map<Long, ClientSet> loaded = loadFromDatabase();
+
+        synchronized (this) {
+            if (modifications.get() != before) {
+                logger.debug("Agreement index resync skipped: concurrent modification");
+                return;
+            }
+            clientsByBroker.keySet().retainAll(loaded.keySet());
+            clientsByBroker.putAll(loaded);
+        }
+        logger.debug("Agreement index resynced: {} active pairs", totalPairs());
+    }
+
+    private Map<Long, ClientSet> loadFromDatabase() {
+        Map<Long, List<Long>> pairs = new HashMap<>();
+        for (Object[] pair : agreementRepository.findActivePairs()) {
+            long brokerId = ((Number) pair[0]).longValue();
+            long clientId = ((Number) pair[1]).longValue();
+            pairs.computeIfAbsent(brokerId, key -> new ArrayList<>()).add(clientId);
+        }
+
+        Map<Long, ClientSet> loaded = new HashMap<>();
+        pairs.forEach((brokerId, clientIds) ->
+                loaded.put(brokerId, ClientSet.of(clientIds.stream().mapToLong(Long::longValue).toArray())));
+        return loaded;
+    }
+
+    private long totalPairs() {
+        long total = 0;
+        for (ClientSet clients : clientsByBroker.values()) {
+            total += clients.size();
+        }
+        return total;
+    }
+
+    // ===== INNER CLASS =====
+
+    /**
+     * Değişmez, kutusuz (primitive) long kümesi. Açık adresleme + doğrusal yoklama;
+     * 0 boş slot işaretidir (IDENTITY id'leri 1'den başlar).
+     */
+    static final class ClientSet {
+        static final ClientSet EMPTY = new ClientSet(new long[0], 0);
+
+        private final long[] table;
+        private final int size;
+
+        private ClientSet(long[] table, int size) {
+            this.table = table;
+            this.size = size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(long value) {
+            if (size == 0 || value == 0) {
+                return false;
+            }
+            int mask = table.length - 1;
+            for (int i = mix(value) & mask; ; i = (i + 1) & mask) {
+                long slot = table[i];
+                if (slot == value) {
+                    return true;
+                }
+                if (slot == 0) {
+                    return false;
+                }
+            }
+        }
+
+        ClientSet with(long value) {
+            if (value == 0 || contains(value)) {
+                return this;
+            }
+            long[] values = Arrays.copyOf(toArray(), size + 1);
+            values[size] = value;
+            return of(values);
+        }
+
+        ClientSet without(long value) {
+            if (!contains(value)) {
+                return this;
+            }
+            long[] values = new long[size - 1];
+            int n = 0;
+            for (long slot : table) {
+                if (slot != 0 && slot != value) {
+                    values[n++] = slot;
+                }
+            }
+            return of(values);
+        }
+
+        long[] toArray() {
+            long[] values = new long[size];
+            int n = 0;
+            for (long slot : table) {
+                if (slot != 0) {
+                    values[n++] = slot;
+                }
+            }
+            return values;
+        }
+
+        // Tekrarlanan değerler bir kez sayılır (aynı çift için birden fazla aktif anlaşma olabilir)
+        static ClientSet of(long[] values) {
+            if (values.length == 0) {
+                return EMPTY;
+            }
+            // Doluluk oranı en fazla %50
+            int capacity = Integer.highestOneBit(Math.max(2, values.length * 2 - 1)) << 1;
+            long[] table = new long[capacity];
+            int mask = capacity - 1;
+            int size = 0;
+            for (long value : values) {
+                if (value == 0) {
+                    continue;
+                }
+                int i = mix(value) & mask;
+                while (table[i] != 0 && table[i] != value) {
+                    i = (i + 1) & mask;
+                }
+                if (table[i] == 0) {
+                    table[i] = value;
+                    size++;
+                }
+            }
+            return size > 0 ? new ClientSet(table, size) : EMPTY;
+        }
+
+        static int mix(long value) {
+            long h = value * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
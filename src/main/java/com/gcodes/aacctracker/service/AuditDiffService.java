@@ -0,0 +1,163 @@
+package com.gcodes.aacctracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gcodes.aacctracker.repository.AuditLogRepository;
+import com.gcodes.aacctracker.service.AuditFieldRegistry.TrackedEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.Temporal;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Alan bazlı audit farkları: anlık görüntü, karşılaştırma ve geçmiş sürümü yeniden oluşturma.
+ * <p>
+ * KURALLAR:
+ * - Anlık görüntü sadece {@link AuditFieldRegistry}'de kayıtlı alanları içerir; değerler JSON ile
+ *   birebir gidip gelecek biçime çevrilir (BigDecimal → sondaki sıfırlar atılmış metin, tarih/enum → ISO metin)
+ * - Audit kaydına sadece değişen alanlar yazılır: {"diff":{"alan":[eski,yeni]}}
+ * - Eski sürüm, güncel durumdan başlanıp istenen andan sonraki farkların "eski" değerleri
+ *   yeniden eskiye uygulanarak oluşturulur
+ * - Audit kayıtları asenkron yazıldığı için son birkaç saniyedeki değişiklik henüz görünmeyebilir
+ * - Saklama süresinden (audit.retention.days) eski farklar silindiği için yeniden oluşturma sadece
+ *   {@link #historyHorizon()} sonrası için doğrudur
+ */
+@Service
+public class AuditDiffService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditDiffService.class);
+
+    private static final String DIFF_KEY = "diff";
+
+    @Value("${audit.retention.days:365}")
+    private int retentionDays;
+
+    @Autowired
+    private AuditFieldRegistry fieldRegistry;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Entity'nin izlenen alanlarının anlık görüntüsü (entity izlenmiyorsa boş)
+     */
+    public Map<String, Object> snapshot(Object entity) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        fieldRegistry.find(entity).ifPresent(tracked ->
+                tracked.getGetters().forEach((field, getter) -> snapshot.put(field, normalize(getter.apply(entity)))));
+        return snapshot;
+    }
+
+    /**
+     * Değişen alanlar → [eski, yeni] (sırası korunur)
+     */
+    public Map<String, Object[]> diff(Map<String, Object> before, Map<String, Object> after) {
+        Map<String, Object[]> changes = new LinkedHashMap<>();
+        after.forEach((field, newValue) -> {
+            Object oldValue = before.get(field);
+            if (!Objects.equals(oldValue, newValue)) {
+                changes.put(field, new Object[]{oldValue, newValue});
+            }
+        });
+        return changes;
+    }
+
+    /**
+     * Audit kaydının change_details değeri; değişiklik yoksa null
+     */
+    public String toChangeDetails(Map<String, Object> before, Map<String, Object> after) {
+        Map<String, Object[]> changes = diff(before, after);
+        if (changes.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(Map.of(DIFF_KEY, changes));
+        } catch (JsonProcessingException e) {
+            logger.error("Error serializing audit diff", e);
+            return null;
+        }
+    }
+
+    /**
+     * Entity'nin verilen andaki izlenen alanları.
+     *
+     * @param current güncel entity (yeniden oluşturmanın başlangıç noktası)
+     */
+    public Map<String, Object> rebuildAsOf(Object current, Long entityId, LocalDateTime asOf) {
+        TrackedEntity tracked = fieldRegistry.find(current)
+                .orElseThrow(() -> new RuntimeException("Entity type is not tracked for audit"));
+
+        Map<String, Object> state = snapshot(current);
+        List<String> changeDetails = auditLogRepository.findChangeDetailsSince(
+                tracked.getEntityType(), entityId, asOf);
+
+        // Yeniden eskiye: her farkın "eski" değeri bir önceki sürümdür
+        for (String details : changeDetails) {
+            JsonNode changes = readDiff(details);
+            if (changes == null) {
+                continue;
+            }
+            Iterator<Map.Entry<String, JsonNode>> fields = changes.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> change = fields.next();
+                if (state.containsKey(change.getKey())) {
+                    state.put(change.getKey(), toValue(change.getValue().get(0)));
+                }
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Geçmiş sürümün güvenilir olarak oluşturulabildiği en eski an; saklama kapalıysa (0 veya negatif) null
+     */
+    public LocalDateTime historyHorizon() {
+        return retentionDays > 0 ? LocalDateTime.now().minusDays(retentionDays) : null;
+    }
+
+    private JsonNode readDiff(String details) {
+        try {
+            JsonNode changes = objectMapper.readTree(details).get(DIFF_KEY);
+            return changes != null && changes.isObject() ? changes : null;
+        } catch (JsonProcessingException e) {
+            // Eski biçimdeki (before/after) veya bozuk kayıtlar atlanır
+            return null;
+        }
+    }
+
+    private Object toValue(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        try {
+            return objectMapper.treeToValue(node, Object.class);
+        } catch (JsonProcessingException e) {
+            return node.asText();
+        }
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            // 10.0 ile 10.00 aynı değerdir
+            return decimal.stripTrailingZeros().toPlainString();
+        }
+        if (value instanceof Temporal || value instanceof Enum<?>) {
+            return value.toString();
+        }
+        return value;
+    }
+}
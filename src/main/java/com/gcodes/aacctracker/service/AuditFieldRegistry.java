@@ -0,0 +1,93 @@
+package com.gcodes.aacctracker.service;
+
+import com.gcodes.aacctracker.model.CustomsTransaction;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Alan bazlı audit için entity başına izlenen alanlar.
+ * <p>
+ * KURALLAR:
+ * - Sadece burada kayıtlı alanlar karşılaştırılır ve audit kaydına yazılır
+ * - Alan adları JSON anahtarıdır; değiştirilirse eski kayıtlar yeni adla okunamaz
+ * - İlişkiler (broker/client/kullanıcı) ve türetilmiş alanlar (süre, gecikme, updatedAt) izlenmez
+ * - Durum (status) izlenir: durum değiştiren aksiyonlar (COMPLETE_TRANSACTION, CANCEL_TRANSACTION, toplu durum vb.)
+ *   de fark yazar, geçmiş sürüm yeniden oluşturulurken durum da geri alınır
+ */
+@Component
+public class AuditFieldRegistry {
+
+    private final Map<Class<?>, TrackedEntity> byClass = new HashMap<>();
+    private final Map<String, TrackedEntity> byEntityType = new HashMap<>();
+
+    public AuditFieldRegistry() {
+        Map<String, Function<CustomsTransaction, Object>> transactionFields = new LinkedHashMap<>();
+        transactionFields.put("fileNo", CustomsTransaction::getFileNo);
+        transactionFields.put("recipientName", CustomsTransaction::getRecipientName);
+        transactionFields.put("customsWarehouse", CustomsTransaction::getCustomsWarehouse);
+        transactionFields.put("gate", CustomsTransaction::getGate);
+        transactionFields.put("weight", CustomsTransaction::getWeight);
+        transactionFields.put("tax", CustomsTransaction::getTax);
+        transactionFields.put("senderName", CustomsTransaction::getSenderName);
+        transactionFields.put("warehouseArrivalDate", CustomsTransaction::getWarehouseArrivalDate);
+        transactionFields.put("registrationDate", CustomsTransaction::getRegistrationDate);
+        transactionFields.put("declarationNumber", CustomsTransaction::getDeclarationNumber);
+        transactionFields.put("lineClosureDate", CustomsTransaction::getLineClosureDate);
+        transactionFields.put("importProcessingTime", CustomsTransaction::getImportProcessingTime);
+        transactionFields.put("withdrawalDate", CustomsTransaction::getWithdrawalDate);
+        transactionFields.put("description", CustomsTransaction::getDescription);
+        transactionFields.put("delayReason", CustomsTransaction::getDelayReason);
+        transactionFields.put("status", CustomsTransaction::getStatus);
+        register(CustomsTransaction.class, "CustomsTransaction", transactionFields);
+    }
+
+    /**
+     * Entity'nin izlenen alanları (Hibernate proxy'leri gerçek sınıfa çözülür)
+     */
+    public Optional<TrackedEntity> find(Object entity) {
+        return entity != null ? Optional.ofNullable(byClass.get(Hibernate.getClass(entity))) : Optional.empty();
+    }
+
+    public Optional<TrackedEntity> find(String entityType) {
+        return Optional.ofNullable(byEntityType.get(entityType));
+    }
+
+    private <T> void register(Class<T> type, String entityType, Map<String, Function<T, Object>> fields) {
+        Map<String, Function<Object, Object>> getters = new LinkedHashMap<>();
+        fields.forEach((name, getter) -> getters.put(name, entity -> getter.apply(type.cast(entity))));
+
+        TrackedEntity tracked = new TrackedEntity(entityType, Collections.unmodifiableMap(getters));
+        byClass.put(type, tracked);
+        byEntityType.put(entityType, tracked);
+    }
+
+    // ===== INNER CLASS =====
+
+    public static final class TrackedEntity {
+        private final String entityType;
+        private final Map<String, Function<Object, Object>> getters;
+
+        private TrackedEntity(String entityType, Map<String, Function<Object, Object>> getters) {
+            this.entityType = entityType;
+            this.getters = getters;
+        }
+
+        public String getEntityType() {
+            return entityType;
+        }
+
+        /**
+         * Alan adı → getter (kayıt sırasıyla)
+         */
+        public Map<String, Function<Object, Object>> getGetters() {
+            return getters;
+        }
+    }
+}
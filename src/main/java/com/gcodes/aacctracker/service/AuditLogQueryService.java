@@ -0,0 +1,155 @@
+package com.gcodes.aacctracker.service;
+
+import com.gcodes.aacctracker.dto.AuditLogEntryResponse;
+import com.gcodes.aacctracker.dto.AuditLogSearchCriteria;
+import com.gcodes.aacctracker.dto.CursorPage;
+import com.gcodes.aacctracker.dto.KeysetCursor;
+import com.gcodes.aacctracker.repository.AuditLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Audit kayıtlarında filtreli arama ve CSV dışa aktarma.
+ * <p>
+ * KURALLAR:
+ * - Arama (timestamp, id) DESC keyset sayfalıdır; COUNT sorgusu yoktur
+ * - Dışa aktarma satırları repository stream'inden okur, liste oluşturmaz (milyonlarca satırda heap sabit)
+ * - Satırlar projeksiyondur; entity ve persistence context büyümesi yoktur
+ * - Kullanıcı kaynaklı metinler (hata mesajı, farklar) formül karakteriyle başlıyorsa önüne ' eklenir
+ */
+@Service
+public class AuditLogQueryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogQueryService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    // Kaç satırda bir çıktı flush edilir
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    // Hücre başında formül başlatan karakterler (CSV/formül enjeksiyonu)
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private static final String[] CSV_HEADER = {
+            "id", "timestamp", "userId", "userEmail", "action", "entityType", "entityId",
+            "result", "ipAddress", "errorMessage", "changeDetails"
+    };
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Transactional(readOnly = true)
+    public CursorPage<AuditLogEntryResponse> search(AuditLogSearchCriteria criteria, String cursor, Integer size) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int pageSize = normalizePageSize(size);
+
+        List<AuditLogEntryResponse> rows = auditLogRepository.searchPage(
+                criteria.getUserId(), blankToNull(criteria.getEntityType()), criteria.getEntityId(),
+                blankToNull(criteria.getAction()), blankToNull(criteria.getResult()),
+                criteria.getFrom(), criteria.getTo(),
+                position != null ? position.getPosition() : null,
+                position != null ? position.getId() : null,
+                PageRequest.of(0, pageSize + 1));
+
+        return CursorPage.fromOverfetched(rows, pageSize,
+                entry -> new KeysetCursor(entry.getTimestamp(), entry.getId()));
+    }
+
+    /**
+     * Filtreye uyan tüm kayıtları (eskiden yeniye) CSV olarak yazar ve satır sayısını döner.
+     * Çıktı stream'i kapatılmaz, sadece flush edilir.
+     */
+    @Transactional(readOnly = true)
+    public long exportCsv(AuditLogSearchCriteria criteria, OutputStream out) throws IOException {
+        long startTime = System.currentTimeMillis();
+        long count = 0;
+
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+
+        // Excel'in UTF-8 tanıması için BOM
+        writer.write('\uFEFF');
+        writeCsvLine(writer, (Object[]) CSV_HEADER);
+
+        try (Stream<AuditLogEntryResponse> rows = auditLogRepository.streamSearch(
+                criteria.getUserId(), blankToNull(criteria.getEntityType()), criteria.getEntityId(),
+                blankToNull(criteria.getAction()), blankToNull(criteria.getResult()),
+                criteria.getFrom(), criteria.getTo())) {
+            Iterator<AuditLogEntryResponse> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                AuditLogEntryResponse entry = iterator.next();
+                writeCsvLine(writer, entry.getId(), entry.getTimestamp(), entry.getUserId(), entry.getUserEmail(),
+                        entry.getAction(), entry.getEntityType(), entry.getEntityId(), entry.getResult(),
+                        entry.getIpAddress(), entry.getErrorMessage(), entry.getChangeDetails());
+
+                if (++count % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+        }
+
+        writer.flush();
+        logger.info("Exported {} audit log entries in {} ms", count, System.currentTimeMillis() - startTime);
+
+        return count;
+    }
+
+    // ===== HELPER METODLARI =====
+
+    private void writeCsvLine(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            // Sayı ve tarihler olduğu gibi; metinler formül olarak yorumlanmasın
+            String value = values[i] instanceof String text ? neutralizeFormula(text)
+                    : values[i] != null ? values[i].toString() : "";
+            writer.write(escapeCsv(value));
+        }
+        writer.write("\r\n");
+    }
+
+    // Excel'de formül olarak çalışmasın: =, +, -, @, tab veya CR ile başlayan metinlerin önüne ' eklenir
+    private String neutralizeFormula(String value) {
+        if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            return "'" + value;
+        }
+        return value;
+    }
+
+    private String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private int normalizePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -1,6 +1,5 @@
 package com.gcodes.aacctracker.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gcodes.aacctracker.model.AuditLog;
 import com.gcodes.aacctracker.model.User;
 import com.gcodes.aacctracker.repository.AuditLogRepository;
@@ -8,10 +7,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -21,38 +21,56 @@ public class AuditLogService {
 
     private static final Logger logger = LoggerFactory.getLogger(AuditLogService.class);
 
+    private static final int RECENT_LIMIT = 10;
+    private static final int RECENT_WINDOW_DAYS = 30;
+
     @Autowired
     private AuditLogRepository auditLogRepository;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private AuditDiffService auditDiffService;
+
+    @Autowired
+    private AuditRetentionJob auditRetentionJob;
+
+    // Loglama metotları transaction açmaz (SUPPORTS): kayıtlar AuditLogWriter ile asenkron yazılır
+    // ve çağıranın transaction'ı varsa commit sonrasına bağlanır.
+    // Dönen AuditLog henüz kaydedilmemiştir (id null).
 
     // ✅ Basit loglama (action + entity bilgisi)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public AuditLog logAction(User performedBy, String action, String entityType, Long entityId) {
-        return logAction(performedBy, action, entityType, entityId, null, null, "SUCCESS", null, null);
+        return logAction(performedBy, action, entityType, entityId, null, "SUCCESS", null, null);
     }
 
     // ✅ IP adresi ile loglama
+    @Transactional(propagation = Propagation.SUPPORTS)
     public AuditLog logAction(User performedBy, String action, String entityType, Long entityId, String ipAddress) {
-        return logAction(performedBy, action, entityType, entityId, null, ipAddress, "SUCCESS", null, null);
+        return logAction(performedBy, action, entityType, entityId, null, "SUCCESS", null, ipAddress);
     }
 
-    // ✅ Detaylı loglama (before/after değişiklikler)
+    // ✅ Detaylı loglama: sadece değişen izlenen alanlar saklanır (anlık görüntüler AuditDiffService.snapshot ile alınır)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public AuditLog logActionWithChanges(User performedBy, String action, String entityType, Long entityId,
-                                         Object before, Object after) {
-        return logAction(performedBy, action, entityType, entityId, before, after, "SUCCESS", null, null);
+                                         Map<String, Object> before, Map<String, Object> after, String ipAddress) {
+        String changeDetails = auditDiffService.toChangeDetails(before, after);
+        return logAction(performedBy, action, entityType, entityId, changeDetails, "SUCCESS", null, ipAddress);
     }
 
     // ✅ Hata ile loglama
+    @Transactional(propagation = Propagation.SUPPORTS)
     public AuditLog logActionError(User performedBy, String action, String entityType, Long entityId,
                                    String ipAddress, Exception exception) {
         String errorMessage = exception != null ? exception.getMessage() : "Unknown error";
-        return logAction(performedBy, action, entityType, entityId, null, ipAddress, "FAILURE", errorMessage, null);
+        return logAction(performedBy, action, entityType, entityId, null, "FAILURE", errorMessage, ipAddress);
     }
 
     // ✅ Tam loglama metodu
     private AuditLog logAction(User performedBy, String action, String entityType, Long entityId,
-                               Object before, Object after, String result,
-                               String errorMessage, String ipAddress) {
+                               String changeDetails, String result, String errorMessage, String ipAddress) {
         try {
             AuditLog log = new AuditLog();
             log.setPerformedBy(performedBy);
@@ -63,43 +81,79 @@ public class AuditLogService {
             log.setErrorMessage(errorMessage);
             log.setIpAddress(ipAddress);
             log.setTimestamp(LocalDateTime.now());
+            log.setChangeDetails(changeDetails);
 
-            // Before/After değişikliklerini JSON olarak sakla
-            if (before != null || after != null) {
-                Map<String, Object> changes = new HashMap<>();
-                if (before != null) {
-                    changes.put("before", before);
-                }
-                if (after != null) {
-                    changes.put("after", after);
-                }
-                try {
-                    log.setChangeDetails(objectMapper.writeValueAsString(changes));
-                } catch (Exception e) {
-                    logger.error("Error serializing changes", e);
-                }
+            // Hatalar iş transaction'ı geri alınsa da yazılır; diğer kayıtlar commit sonrasında
+            if ("FAILURE".equals(result)) {
+                publish(log);
+            } else {
+                TransactionHooks.afterCommit(() -> publish(log));
             }
 
-            AuditLog saved = auditLogRepository.save(log);
-
-            logger.info("Action logged: {} - User: {}, Entity: {} ({}), Result: {}",
-                    action, performedBy.getEmail(), entityType, entityId, result);
-
-            return saved;
+            return log;
         } catch (Exception e) {
             logger.error("Error logging action", e);
             return null;
         }
     }
 
+    // ✅ YENİ: Toplu loglama - aynı işlemin birden çok entity için kaydı (yazıcı tek JDBC batch ile yazar)
+    // Her kayda entity'nin kendi farkı yazılır: beforeById (entity id → anlık görüntü) ile ortak after karşılaştırılır
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void logBatch(User performedBy, String action, String entityType,
+                         Map<Long, Map<String, Object>> beforeById, Map<String, Object> after, String ipAddress) {
+        if (beforeById.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<AuditLog> logs = new ArrayList<>(beforeById.size());
+        for (Map.Entry<Long, Map<String, Object>> entry : beforeById.entrySet()) {
+            AuditLog log = new AuditLog(performedBy, action, entityType, entry.getKey());
+            log.setTimestamp(now);
+            log.setChangeDetails(auditDiffService.toChangeDetails(entry.getValue(), after));
+            log.setIpAddress(ipAddress);
+            logs.add(log);
+        }
+
+        TransactionHooks.afterCommit(() -> {
+            int accepted = 0;
+            for (AuditLog log : logs) {
+                if (auditLogWriter.publish(log)) {
+                    accepted++;
+                }
+            }
+
+            if (accepted < logs.size()) {
+                logger.warn("Audit queue full, {} of {} entries dropped: {} - User: {}, Entity: {}",
+                        logs.size() - accepted, logs.size(), action, performedBy.getEmail(), entityType);
+            }
+            logger.info("Action logged: {} - User: {}, Entity: {} ({} records), Result: SUCCESS",
+                    action, performedBy.getEmail(), entityType, accepted);
+        });
+    }
+
+    // Kaydı yazıcı kuyruğuna ekler; kuyruk doluysa kayıt düşer ve bu loglanır
+    private void publish(AuditLog log) {
+        String email = log.getPerformedBy() != null ? log.getPerformedBy().getEmail() : null;
+        if (auditLogWriter.publish(log)) {
+            logger.info("Action logged: {} - User: {}, Entity: {} ({}), Result: {}",
+                    log.getAction(), email, log.getEntityType(), log.getEntityId(), log.getResult());
+        } else {
+            logger.warn("Audit queue full, entry dropped: {} - User: {}, Entity: {} ({}), Result: {}",
+                    log.getAction(), email, log.getEntityType(), log.getEntityId(), log.getResult());
+        }
+    }
+
     // ✅ Kullanıcının tüm aktiviteleri
     public List<AuditLog> getUserActivities(User user) {
         return auditLogRepository.findByPerformedBy(user);
     }
 
-    // ✅ Kullanıcının son 10 aktivitesi
+    // ✅ Kullanıcının son 10 aktivitesi (önce son 30 gün; yetmezse tüm geçmiş)
     public List<AuditLog> getUserRecentActivities(User user) {
-        return auditLogRepository.findUserRecentActivities(user);
+        List<AuditLog> recent = auditLogRepository.findUserRecentActivitiesSince(user, recentWindowStart());
+        return recent.size() >= RECENT_LIMIT ? recent : auditLogRepository.findUserRecentActivities(user);
     }
 
     // ✅ Kullanıcının belirli tarih aralığındaki aktiviteleri
@@ -132,9 +186,10 @@ public class AuditLogService {
         return auditLogRepository.findByTimestampBetween(startTime, endTime);
     }
 
-    // ✅ Son 10 aktivite (sistem geneli)
+    // ✅ Son 10 aktivite (sistem geneli; önce son 30 gün, yetmezse tüm geçmiş)
     public List<AuditLog> getRecentActivities() {
-        return auditLogRepository.findRecentActivities();
+        List<AuditLog> recent = auditLogRepository.findRecentActivitiesSince(recentWindowStart());
+        return recent.size() >= RECENT_LIMIT ? recent : auditLogRepository.findRecentActivities();
     }
 
     // ✅ Başarısız işlemler
@@ -168,15 +223,15 @@ public class AuditLogService {
         auditLogRepository.deleteAll();
     }
 
-    // ✅ Eski logları temizle (X gün öncesindeki)
-    public int clearOldLogs(int daysOld) {
+    // Son aktivite sorguları önce bu pencereyle çalışır (bölümlenmiş tabloda eski aylar okunmaz)
+    private static LocalDateTime recentWindowStart() {
+        return LocalDateTime.now().minusDays(RECENT_WINDOW_DAYS);
+    }
+
+    // ✅ Eski logları temizle (X gün öncesindeki) - id aralıklarıyla parça parça, her parça ayrı commit
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long clearOldLogs(int daysOld) {
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysOld);
-        List<AuditLog> oldLogs = auditLogRepository.findByTimestampBetween(
-                LocalDateTime.of(2000, 1, 1, 0, 0),
-                cutoffDate
-        );
-        auditLogRepository.deleteAll(oldLogs);
-        logger.info("Cleared {} old audit logs (older than {} days)", oldLogs.size(), daysOld);
-        return oldLogs.size();
-    }
-}
\ No newline at end of file
+        return auditRetentionJob.purgeOlderThan(cutoffDate);
+    }
+}
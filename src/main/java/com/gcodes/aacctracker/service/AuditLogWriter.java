@@ -0,0 +1,283 @@
+package com.gcodes.aacctracker.service;
+
+import com.gcodes.aacctracker.model.AuditLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Audit kayıtlarını asenkron ve toplu (JDBC batch) yazan arka plan yazıcısı.
+ * <p>
+ * KURALLAR:
+ * - Kayıtlar sınırlı bir kuyruğa eklenir; tek bir yazıcı thread'i kuyruğu batch-size'a ulaşınca
+ *   veya ilk kaydın üzerinden flush-interval geçince tek batch insert ile yazar
+ * - Kuyruk doluysa overflow-policy uygulanır: DROP → kayıt hemen düşürülür,
+ *   BLOCK → çağıran en fazla block-timeout kadar bekler, yer açılmazsa kayıt düşürülür;
+ *   publish sonucu döner, düşürülen kaydı çağıran loglar
+ * - Batch insert bir satır yüzünden başarısız olursa (BatchUpdateException) batch'in yazılamayan
+ *   satırları tek tek eklenir; yalnızca yine başarısız olan kayıtlar düşürülür
+ * - Kapanışta kuyruktaki tüm kayıtlar yazılır (shutdown-timeout içinde)
+ * - Yazma hatası iş akışını etkilemez; loglanır ve sayılır
+ * - Metrikler: audit.writer.queue.size, audit.writer.written, audit.writer.dropped, audit.writer.failed, audit.writer.flush
+ */
+@Component
+public class AuditLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final String BATCH_INSERT_SQL = "INSERT INTO audit_logs " +
+            "(user_id, action, entity_type, entity_id, timestamp, change_details, ip_address, result, error_message) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK
+    }
+
+    @Value("${audit.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${audit.writer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${audit.writer.flush-interval:1s}")
+    private Duration flushInterval;
+
+    @Value("${audit.writer.overflow-policy:DROP}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${audit.writer.block-timeout:100ms}")
+    private Duration blockTimeout;
+
+    @Value("${audit.writer.shutdown-timeout:10s}")
+    private Duration shutdownTimeout;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<AuditLog> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private Counter written;
+    private Counter dropped;
+    private Counter failed;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("audit.writer.queue.size", queue, BlockingQueue::size)
+                .description("Audit log entries waiting to be written")
+                .register(meterRegistry);
+        written = Counter.builder("audit.writer.written")
+                .description("Audit log entries written to the database")
+                .register(meterRegistry);
+        dropped = Counter.builder("audit.writer.dropped")
+                .description("Audit log entries dropped because the queue was full")
+                .register(meterRegistry);
+        failed = Counter.builder("audit.writer.failed")
+                .description("Audit log entries lost because their insert failed")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("audit.writer.flush")
+                .description("Audit log batch insert duration")
+                .register(meterRegistry);
+
+        running = true;
+        writerThread = new Thread(this::run, "audit-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        logger.info("Audit log writer started: queue capacity {}, batch size {}, flush interval {}, overflow policy {}",
+                queueCapacity, batchSize, flushInterval, overflowPolicy);
+    }
+
+    /**
+     * Kaydı hemen kuyruğa ekler. Kuyruk doluysa overflow-policy uygulanır.
+     *
+     * @return kayıt kuyruğa eklendiyse true, düşürüldüyse false
+     */
+    public boolean publish(AuditLog log) {
+        boolean accepted;
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                accepted = queue.offer(log, blockTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        } else {
+            accepted = queue.offer(log);
+        }
+
+        if (!accepted) {
+            dropped.increment();
+        }
+        return accepted;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Yazıcı thread'i kesilmez (JDBC çağrısının ortasında bağlantıyı bozmasın); bekleme aralığında durmayı fark eder
+        running = false;
+        try {
+            writerThread.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Yazıcı bittikten sonra kuyruğa düşen kayıtları yaz (yazıcı hâlâ çalışıyorsa kayıtlar ona bırakılır)
+        if (!writerThread.isAlive()) {
+            drainRemaining();
+        }
+        if (!queue.isEmpty()) {
+            logger.warn("Audit log writer stopped with {} entries not written", queue.size());
+        }
+    }
+
+    private void run() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            writeBatch(batch);
+        }
+        drainRemaining();
+    }
+
+    /**
+     * İlk kaydı (en fazla flush-interval) bekler, ardından batch dolana veya
+     * ilk kaydın üzerinden flush-interval geçene kadar toplar.
+     */
+    private void collectBatch(List<AuditLog> batch) throws InterruptedException {
+        AuditLog first = queue.poll(flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+
+        long deadline = System.nanoTime() + flushInterval.toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            if (batch.size() >= batchSize) {
+                return;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            AuditLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private synchronized void drainRemaining() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+        }
+    }
+
+    private void writeBatch(List<AuditLog> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batchArgs = new ArrayList<>(batch.size());
+        for (AuditLog log : batch) {
+            batchArgs.add(new Object[]{
+                    log.getPerformedBy() != null ? log.getPerformedBy().getId() : null,
+                    log.getAction(),
+                    log.getEntityType(),
+                    log.getEntityId(),
+                    log.getTimestamp(),
+                    log.getChangeDetails(),
+                    log.getIpAddress(),
+                    log.getResult(),
+                    log.getErrorMessage()
+            });
+        }
+
+        try {
+            flushTimer.record(() -> jdbcTemplate.batchUpdate(BATCH_INSERT_SQL, batchArgs));
+            written.increment(batch.size());
+        } catch (Exception e) {
+            BatchUpdateException batchError = findBatchUpdateException(e);
+            if (batchError != null) {
+                logger.warn("Audit log batch insert failed, retrying {} entries row by row: {}",
+                        batch.size(), batchError.getMessage());
+                writeRowByRow(batch, batchArgs, batchError.getUpdateCounts());
+            } else {
+                failed.increment(batch.size());
+                logger.error("Error writing {} audit log entries", batch.size(), e);
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Batch'te yazılamayan satırları tek tek ekler. Sürücünün başarılı bildirdiği satırlar
+     * (update count EXECUTE_FAILED değil) zaten yazılmıştır, tekrar eklenmez.
+     */
+    private void writeRowByRow(List<AuditLog> batch, List<Object[]> batchArgs, int[] updateCounts) {
+        int writtenRows = 0;
+        int failedRows = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (i < updateCounts.length && updateCounts[i] != Statement.EXECUTE_FAILED) {
+                writtenRows++;
+                continue;
+            }
+            try {
+                jdbcTemplate.update(BATCH_INSERT_SQL, batchArgs.get(i));
+                writtenRows++;
+            } catch (DataAccessException e) {
+                failedRows++;
+                AuditLog log = batch.get(i);
+                logger.error("Audit log entry dropped: {} - {} ({}): {}",
+                        log.getAction(), log.getEntityType(), log.getEntityId(), e.getMessage());
+            }
+        }
+        written.increment(writtenRows);
+        failed.increment(failedRows);
+    }
+
+    private BatchUpdateException findBatchUpdateException(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BatchUpdateException batchError) {
+                return batchError;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,230 @@
+package com.gcodes.aacctracker.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * audit_logs aylık bölümlerinin (RANGE TO_DAYS(timestamp)) bakımı.
+ * <p>
+ * KURALLAR:
+ * - Tablo bölümlenmemişse (ör. local create-drop şeması) hiçbir şey yapmaz; bölümleme db/changes/005 ile açılır
+ * - Gelecek months-ahead ay için bölümler önceden, boş pmax bölümünden ayrılarak oluşturulur (pYYYYMM)
+ * - Tamamı audit.retention.days'ten eski bölümler O(1) kaldırılır:
+ *   DROP → DROP PARTITION, ARCHIVE → EXCHANGE PARTITION ile audit_logs_archive_pYYYYMM tablosuna taşınır
+ * - ARCHIVE yarıda kalırsa tekrar çalıştırılabilir: arşiv tablosu varsa yeniden oluşturulmaz, dolu bir arşiv
+ *   tablosuyla bölüm değiş tokuş edilmez (önceki EXCHANGE tamamlandıysa bölüm sadece kaldırılır)
+ * - Aylık bölümler bu sınıf tarafından kaldırılır; geçmiş bölümü (phistory, birden çok ay) sınırı dolana kadar
+ *   AuditRetentionJob tarafından satır satır temizlenir (bkz. {@link #hasLegacyPartition()})
+ * - Açılışta ve her gün çalışır; başka bir instance aynı anda değiştirdiyse hata loglanır, sonraki turda düzelir
+ */
+@Component
+public class AuditPartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditPartitionManager.class);
+
+    private static final String PARTITIONS_SQL =
+            "SELECT PARTITION_NAME, " +
+            "CASE WHEN PARTITION_DESCRIPTION = 'MAXVALUE' THEN NULL ELSE FROM_DAYS(PARTITION_DESCRIPTION) END " +
+            "FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_logs' AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION";
+
+    private static final String MAX_PARTITION = "pmax";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("^p[a-z0-9]+$");
+
+    // Aylık bölüm adı (pYYYYMM); diğerleri migration'dan kalan çok aylık bölümlerdir (phistory)
+    private static final Pattern MONTHLY_PARTITION_NAME = Pattern.compile("^p\\d{6}$");
+
+    private static final String IS_PARTITIONED_SQL =
+            "SELECT COUNT(*) FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL";
+
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    public enum RetentionMode {
+        DROP,
+        ARCHIVE
+    }
+
+    @Value("${audit.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${audit.partitions.retention-mode:DROP}")
+    private RetentionMode retentionMode;
+
+    @Value("${audit.retention.days:365}")
+    private int retentionDays;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile boolean partitioned;
+    private volatile boolean legacyPartition;
+
+    @PostConstruct
+    public void init() {
+        maintain();
+    }
+
+    /**
+     * audit_logs bölümlenmiş mi? (son bakım turundaki durum)
+     */
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    /**
+     * Çok aylık geçmiş bölümü (phistory) hâlâ var mı? Varken içindeki eski satırlar bölüm
+     * kaldırılarak değil, AuditRetentionJob'un parça parça silmesiyle temizlenir.
+     */
+    public boolean hasLegacyPartition() {
+        return legacyPartition;
+    }
+
+    @Scheduled(cron = "${audit.partitions.cron:0 0 2 * * *}")
+    public synchronized void maintain() {
+        try {
+            List<PartitionInfo> partitions = loadPartitions();
+            partitioned = !partitions.isEmpty();
+            legacyPartition = partitions.stream().anyMatch(partition -> partition.upperBound != null
+                    && !MONTHLY_PARTITION_NAME.matcher(partition.name).matches());
+            if (!partitioned) {
+                logger.debug("audit_logs is not partitioned, partition maintenance skipped");
+                return;
+            }
+
+            createFuturePartitions(partitions);
+            if (retentionDays > 0) {
+                removeExpiredPartitions(partitions, LocalDate.now().minusDays(retentionDays));
+            }
+        } catch (Exception e) {
+            logger.error("Audit partition maintenance failed", e);
+        }
+    }
+
+    private List<PartitionInfo> loadPartitions() {
+        return jdbcTemplate.query(PARTITIONS_SQL, (rs, rowNum) -> {
+            Date upperBound = rs.getDate(2);
+            return new PartitionInfo(rs.getString(1), upperBound != null ? upperBound.toLocalDate() : null);
+        });
+    }
+
+    /**
+     * pmax'ı bölerek bugünden itibaren months-ahead ay sonrasına kadar aylık bölümler ekler
+     */
+    private void createFuturePartitions(List<PartitionInfo> partitions) {
+        if (partitions.stream().noneMatch(partition -> MAX_PARTITION.equals(partition.name))) {
+            logger.warn("audit_logs has no {} partition, future partitions not created", MAX_PARTITION);
+            return;
+        }
+
+        LocalDate lastBound = partitions.stream()
+                .map(partition -> partition.upperBound)
+                .filter(Objects::nonNull)
+                .max(LocalDate::compareTo)
+                .orElse(LocalDate.now().withDayOfMonth(1));
+        LocalDate target = LocalDate.now().withDayOfMonth(1).plusMonths(monthsAhead + 1L);
+
+        List<String> definitions = new ArrayList<>();
+        List<String> created = new ArrayList<>();
+        for (LocalDate start = lastBound; start.isBefore(target); start = start.plusMonths(1)) {
+            String name = "p" + start.format(PARTITION_MONTH);
+            definitions.add("PARTITION " + name + " VALUES LESS THAN (TO_DAYS('" + start.plusMonths(1) + "'))");
+            created.add(name);
+        }
+        if (definitions.isEmpty()) {
+            return;
+        }
+
+        definitions.add("PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE");
+        jdbcTemplate.execute("ALTER TABLE audit_logs REORGANIZE PARTITION " + MAX_PARTITION +
+                " INTO (" + String.join(", ", definitions) + ")");
+        logger.info("Audit partitions created: {}", created);
+    }
+
+    /**
+     * Üst sınırı kesme tarihinden eski (tamamı süresi dolmuş) bölümleri kaldırır
+     */
+    private void removeExpiredPartitions(List<PartitionInfo> partitions, LocalDate cutoff) {
+        for (PartitionInfo partition : partitions) {
+            if (partition.upperBound == null || partition.upperBound.isAfter(cutoff)) {
+                continue;
+            }
+            if (!PARTITION_NAME.matcher(partition.name).matches()) {
+                logger.warn("Unexpected audit partition name '{}', skipped", partition.name);
+                continue;
+            }
+
+            if (retentionMode == RetentionMode.ARCHIVE && !archivePartition(partition)) {
+                continue;
+            }
+
+            jdbcTemplate.execute("ALTER TABLE audit_logs DROP PARTITION " + partition.name);
+            logger.info("Audit partition {} dropped (rows before {})", partition.name, partition.upperBound);
+        }
+    }
+
+    /**
+     * Bölümü audit_logs_archive_pX tablosuna taşır; yarıda kalmış önceki bir çalışmadan sonra da güvenlidir.
+     *
+     * @return bölüm kaldırılabilirse true
+     */
+    private boolean archivePartition(PartitionInfo partition) {
+        String archiveTable = "audit_logs_archive_" + partition.name;
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + archiveTable + " LIKE audit_logs");
+        if (queryCount(IS_PARTITIONED_SQL, archiveTable) > 0) {
+            jdbcTemplate.execute("ALTER TABLE " + archiveTable + " REMOVE PARTITIONING");
+        }
+
+        if (!hasRows(archiveTable)) {
+            jdbcTemplate.execute("ALTER TABLE audit_logs EXCHANGE PARTITION " + partition.name +
+                    " WITH TABLE " + archiveTable);
+            logger.info("Audit partition {} archived to {}", partition.name, archiveTable);
+            return true;
+        }
+
+        // Arşiv dolu: önceki EXCHANGE tamamlandıysa bölüm boştur, değilse iki tarafı da bozmamak için beklenir
+        if (hasRows("audit_logs PARTITION (" + partition.name + ")")) {
+            logger.warn("Archive table {} already has rows, audit partition {} kept", archiveTable, partition.name);
+            return false;
+        }
+        logger.info("Audit partition {} already archived to {}", partition.name, archiveTable);
+        return true;
+    }
+
+    private boolean hasRows(String table) {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM " + table + " LIMIT 1").isEmpty();
+    }
+
+    private long queryCount(String sql, Object... args) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, args);
+        return count != null ? count : 0;
+    }
+
+    // ===== INNER CLASS =====
+
+    private static final class PartitionInfo {
+        private final String name;
+        private final LocalDate upperBound;  // null → MAXVALUE
+
+        private PartitionInfo(String name, LocalDate upperBound) {
+            this.name = name;
+            this.upperBound = upperBound;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.gcodes.aacctracker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Audit kayıtları için saklama süresi (retention) temizliği.
+ * <p>
+ * KURALLAR:
+ * - Entity yüklenmez; sadece id sınırları okunur ve satırlar JDBC ile silinir
+ * - Üst sınır, idx_timestamp indeksiyle tek aramada bulunan "kesme anından eski en yeni kayıt" id'sidir
+ * - Silme, birincil anahtar üzerinde sınırlı id aralıklarıyla (chunk-size) yapılır; her aralık ayrı commit edilir
+ *   ve aralıklar arasında pause kadar beklenir (kilitler kısa tutulur, replikasyon geride kalmaz)
+ * - Kaldığı yerden devam eder: silme en küçük id'den yukarı ilerlediği için yarıda kalan bir çalışma
+ *   bir sonraki çalışmada MIN(id)'den sürer; ayrıca durum saklanmaz
+ * - Aynı instance'ta aynı anda tek çalışma olur; kapanışta aralıklar arasında durur
+ * - Metrik: audit.retention.deleted; her çalışmanın sonunda satır/saniye loglanır
+ * - Tablo bölümlenmişse süresi dolan aylar {@link AuditPartitionManager} ile kaldırılır; zamanlanmış silme yalnızca
+ *   migration'dan kalan geçmiş bölümü (phistory) varken çalışır, çünkü o bölümün sınırı ancak ~13 ay sonra dolar
+ */
+@Component
+public class AuditRetentionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditRetentionJob.class);
+
+    private static final String BOUNDARY_SQL =
+            "SELECT id FROM audit_logs WHERE timestamp < ? ORDER BY timestamp DESC LIMIT 1";
+
+    private static final String MIN_ID_SQL = "SELECT MIN(id) FROM audit_logs";
+
+    private static final String DELETE_CHUNK_SQL =
+            "DELETE FROM audit_logs WHERE id BETWEEN ? AND ? AND timestamp < ?";
+
+    @Value("${audit.retention.days:365}")
+    private int retentionDays;
+
+    @Value("${audit.retention.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${audit.retention.pause:200ms}")
+    private Duration pause;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AuditPartitionManager partitionManager;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopping;
+
+    private Counter deletedCounter;
+
+    @PostConstruct
+    public void init() {
+        deletedCounter = Counter.builder("audit.retention.deleted")
+                .description("Audit log rows deleted by the retention job")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+    }
+
+    /**
+     * Zamanlanmış çalışma: retention-days'ten eski kayıtları siler (0 veya negatif → kapalı)
+     */
+    @Scheduled(cron = "${audit.retention.cron:0 30 3 * * *}")
+    public void run() {
+        if (retentionDays <= 0) {
+            return;
+        }
+        if (partitionManager.isPartitioned() && !partitionManager.hasLegacyPartition()) {
+            return;
+        }
+        purgeOlderThan(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    /**
+     * Kesme anından eski audit kayıtlarını parça parça siler.
+     *
+     * @return silinen satır sayısı (başka bir çalışma sürüyorsa 0)
+     */
+    public long purgeOlderThan(LocalDateTime cutoff) {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Audit retention already running, skipped");
+            return 0;
+        }
+
+        try {
+            return purge(cutoff);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long purge(LocalDateTime cutoff) {
+        Long boundaryId = queryId(BOUNDARY_SQL, cutoff);
+        Long minId = queryId(MIN_ID_SQL);
+        if (boundaryId == null || minId == null || minId > boundaryId) {
+            logger.info("Audit retention: nothing older than {}", cutoff);
+            return 0;
+        }
+
+        long startTime = System.currentTimeMillis();
+        long deleted = 0;
+        int chunks = 0;
+
+        for (long lower = minId; lower <= boundaryId && !stopping; lower += chunkSize) {
+            long upper = Math.min(lower + chunkSize - 1, boundaryId);
+            int rows = jdbcTemplate.update(DELETE_CHUNK_SQL, lower, upper, cutoff);
+            deleted += rows;
+            chunks++;
+            deletedCounter.increment(rows);
+
+            logger.debug("Audit retention chunk [{}, {}]: {} rows", lower, upper, rows);
+
+            // Boş aralıklarda beklenmez
+            if (rows > 0 && upper < boundaryId && !sleep()) {
+                break;
+            }
+        }
+
+        long elapsedMs = Math.max(1, System.currentTimeMillis() - startTime);
+        logger.info("Audit retention: deleted {} rows older than {} in {} chunks, {} ms ({} rows/s){}",
+                deleted, cutoff, chunks, elapsedMs, deleted * 1000 / elapsedMs,
+                stopping ? " - interrupted by shutdown, will resume on next run" : "");
+        return deleted;
+    }
+
+    private Long queryId(String sql, Object... args) {
+        try {
+            return jdbcTemplate.queryForObject(sql, Long.class, args);
+        } catch (EmptyResultDataAccessException e) {
+            return null;
+        }
+    }
+
+    private boolean sleep() {
+        if (pause.isZero() || pause.isNegative()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -6,10 +6,10 @@ import com.gcodes.aacctracker.repository.AgencyAgreementRepository;
 import com.gcodes.aacctracker.repository.CompanyRepository;
 import com.gcodes.aacctracker.repository.UserRepository;
 import com.gcodes.aacctracker.security.JwtTokenProvider;
+import com.gcodes.aacctracker.security.PasswordHashingService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,22 +24,24 @@ public class AuthService {
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
 
     private final UserService userService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenProvider jwtTokenProvider;
     private final UserRepository userRepository;
     private final CompanyRepository companyRepository;
     private final AgencyAgreementRepository agencyAgreementRepository;
+    private final AgreementIndex agreementIndex;
+    private final CompanyHierarchyService companyHierarchyService;
 
     // ✅ Normal kullanıcı kaydı (CLIENT_USER olarak) - DEPRECATED
     public AuthResponse register(RegisterRequest request) {
         User user = new User();
         user.setEmail(request.getEmail());
         user.setUsername(request.getUsername());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setGlobalRole(GlobalRole.CLIENT_USER);
 
         userService.createUser(user);
-        String token = jwtTokenProvider.generateToken(user.getEmail());
+        String token = jwtTokenProvider.generateToken(user);
 
         return new AuthResponse(token);
     }
@@ -49,11 +51,11 @@ public class AuthService {
         User user = new User();
         user.setEmail(request.getEmail());
         user.setUsername(request.getUsername());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setGlobalRole(GlobalRole.SUPER_ADMIN);
 
         userService.createUser(user);
-        String token = jwtTokenProvider.generateToken(user.getEmail());
+        String token = jwtTokenProvider.generateToken(user);
 
         return new AuthResponse(token);
     }
@@ -91,6 +93,7 @@ public class AuthService {
         clientCompany.setParentBroker(brokerCompany);
         clientCompany.setIsActive(true);
         Company savedClient = companyRepository.save(clientCompany);
+        companyHierarchyService.clientChangedAfterCommit(savedClient);
 
         // Otomatik anlaşma oluştur
         AgencyAgreement agreement = new AgencyAgreement();
@@ -100,12 +103,13 @@ public class AuthService {
         agreement.setStartDate(LocalDateTime.now());
         agreement.setAgreementNumber(generateAgreementNumber());
         agencyAgreementRepository.save(agreement);
+        agreementIndex.setActiveAfterCommit(brokerCompany.getId(), savedClient.getId(), true);
 
         // Client kullanıcısı oluştur
         User clientUser = new User();
         clientUser.setEmail(request.getEmail());
         clientUser.setUsername(request.getUsername());
-        clientUser.setPassword(passwordEncoder.encode(request.getPassword()));
+        clientUser.setPassword(passwordHashingService.encode(request.getPassword()));
         clientUser.setGlobalRole(GlobalRole.CLIENT_USER);
         clientUser.setCompany(savedClient);
         clientUser.setIsActive(false);
@@ -113,7 +117,7 @@ public class AuthService {
         User savedUser = userRepository.save(clientUser);
 
         // JWT token oluştur
-        String token = jwtTokenProvider.generateToken(savedUser.getEmail());
+        String token = jwtTokenProvider.generateToken(savedUser);
 
         // Response hazırla
         Map<String, Object> userMap = Map.of(
@@ -147,10 +151,10 @@ public class AuthService {
 
     // ✅ Giriş - Basit (eski)
     public AuthResponse authenticate(AuthRequest request) {
-        User user = userService.findByEmail(request.getEmail())
+        User user = userService.findForLogin(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
             throw new RuntimeException("Invalid credentials");
         }
 
@@ -158,16 +162,18 @@ public class AuthService {
             throw new RuntimeException("PENDING_APPROVAL");
         }
 
-        String token = jwtTokenProvider.generateToken(user.getEmail());
+        rehashPasswordIfNeeded(user, request.getPassword());
+
+        String token = jwtTokenProvider.generateToken(user);
         return new AuthResponse(token);
     }
 
     // ✅ YENİ: Context-aware login (broker seçimi ile)
     public ContextualAuthResponse authenticateWithContext(ContextualLoginRequest request) {
-        User user = userService.findByEmail(request.getEmail())
+        User user = userService.findForLogin(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
             throw new RuntimeException("Invalid credentials");
         }
 
@@ -175,7 +181,9 @@ public class AuthService {
             throw new RuntimeException("User account is disabled");
         }
 
-        String token = jwtTokenProvider.generateToken(user.getEmail());
+        rehashPasswordIfNeeded(user, request.getPassword());
+
+        String token = jwtTokenProvider.generateToken(user);
 
         // Kullanıcının erişebildiği broker'ları bul
         List<Map<String, Object>> availableBrokers = getAvailableBrokersForUser(user);
@@ -270,6 +278,22 @@ public class AuthService {
         return brokers;
     }
 
+    // ✅ BCrypt maliyeti değiştiyse şifreyi yeni maliyetle kaydet (giriş bundan etkilenmez)
+    private void rehashPasswordIfNeeded(User user, String rawPassword) {
+        if (!passwordHashingService.needsRehash(user.getPassword())) {
+            return;
+        }
+
+        try {
+            String newHash = passwordHashingService.encode(rawPassword);
+            if (userService.rehashPassword(user.getId(), user.getPassword(), newHash)) {
+                logger.info("Password rehashed with current BCrypt strength for user: {}", user.getEmail());
+            }
+        } catch (Exception e) {
+            logger.warn("Password rehash skipped for user {}: {}", user.getEmail(), e.getMessage());
+        }
+    }
+
     // ✅ Helper: Anlaşma numarası oluştur
     private String generateAgreementNumber() {
         return "AGR-" + LocalDateTime.now().format(
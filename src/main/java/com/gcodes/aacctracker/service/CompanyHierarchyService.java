@@ -0,0 +1,136 @@
+package com.gcodes.aacctracker.service;
+
+import com.gcodes.aacctracker.model.Company;
+import com.gcodes.aacctracker.repository.CompanyRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Broker → aktif müşteri firma id'leri hiyerarşisi (bellek içi).
+ * <p>
+ * KURALLAR:
+ * - Açılışta veritabanından tek sorguyla yüklenir
+ * - Harita copy-on-write'tır: okumalar kilitsiz, her yazma yeni bir değişmez harita yayınlar
+ * - Müşteri firma oluşturma/silme/aktiflik değişikliği commit sonrasında yansır
+ * - Periyodik olarak veritabanıyla yeniden eşitlenir (başka instance'ların değişiklikleri için)
+ */
+@Service
+public class CompanyHierarchyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompanyHierarchyService.class);
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    private volatile Map<Long, List<Long>> clientsByBroker = Map.of();
+
+    // Yeniden eşitleme sırasında gelen yazmaları fark etmek için
+    private final AtomicLong modifications = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        clientsByBroker = loadFromDatabase();
+        logger.info("Company hierarchy loaded: {} brokers with active clients", clientsByBroker.size());
+    }
+
+    /**
+     * Broker'ın aktif müşteri firma id'leri (değişmez liste; broker bilinmiyorsa boş)
+     */
+    public List<Long> getActiveClientIds(Long brokerId) {
+        if (brokerId == null) {
+            return List.of();
+        }
+        return clientsByBroker.getOrDefault(brokerId, List.of());
+    }
+
+    /**
+     * Broker'ın kendi firması + aktif müşterileri (broker ilk sırada)
+     */
+    public List<Long> getCompanyIdsInScope(Long brokerId) {
+        List<Long> ids = new ArrayList<>();
+        ids.add(brokerId);
+        ids.addAll(getActiveClientIds(brokerId));
+        return ids;
+    }
+
+    /**
+     * Müşteri firmanın güncel durumunu commit sonrasında hiyerarşiye yazar.
+     * Broker firmalar ve parent broker'ı olmayan firmalar yok sayılır.
+     */
+    public void clientChangedAfterCommit(Company company) {
+        if (company == null || !company.isClient() || company.getParentBroker() == null) {
+            return;
+        }
+
+        Long brokerId = company.getParentBroker().getId();
+        Long clientId = company.getId();
+        boolean active = Boolean.TRUE.equals(company.getIsActive());
+
+        TransactionHooks.afterCommit(() -> setClient(brokerId, clientId, active));
+    }
+
+    private synchronized void setClient(Long brokerId, Long clientId, boolean active) {
+        modifications.incrementAndGet();
+
+        List<Long> current = clientsByBroker.getOrDefault(brokerId, List.of());
+        if (current.contains(clientId) == active) {
+            return;
+        }
+
+        List<Long> updated = new ArrayList<>(current);
+        if (active) {
+            updated.add(clientId);
+        } else {
+            updated.remove(clientId);
+        }
+
+        Map<Long, List<Long>> copy = new HashMap<>(clientsByBroker);
+        if (updated.isEmpty()) {
+            copy.remove(brokerId);
+        } else {
+            copy.put(brokerId, List.copyOf(updated));
+        }
+        clientsByBroker = Map.copyOf(copy);
+    }
+
+    /**
+     * Hiyerarşiyi veritabanıyla yeniden eşitler. Yükleme sırasında yazma olduysa sonuç atılır.
+     */
+    @Scheduled(initialDelayString = "${companies.hierarchy.resync-interval:PT10M}",
+            fixedDelayString = "${companies.hierarchy.resync-interval:PT10M}")
+    public void resync() {
+        long before = modifications.get();
+        Map<Long, List<Long>> loaded = loadFromDatabase();
+
+        synchronized (this) {
+            if (modifications.get() != before) {
+                logger.debug("Company hierarchy resync skipped: concurrent modification");
+                return;
+            }
+            clientsByBroker = loaded;
+        }
+    }
+
+    private Map<Long, List<Long>> loadFromDatabase() {
+        Map<Long, List<Long>> loaded = new HashMap<>();
+        for (Object[] pair : companyRepository.findActiveClientPairs()) {
+            Long brokerId = ((Number) pair[0]).longValue();
+            Long clientId = ((Number) pair[1]).longValue();
+            loaded.computeIfAbsent(brokerId, key -> new ArrayList<>()).add(clientId);
+        }
+
+        Map<Long, List<Long>> result = new HashMap<>();
+        loaded.forEach((brokerId, clientIds) -> result.put(brokerId, List.copyOf(clientIds)));
+        return Map.copyOf(result);
+    }
+}
@@ -35,6 +35,9 @@ public class CompanyService {
     @Autowired
     private BrokerSubscriptionRepository subscriptionRepository;
 
+    @Autowired
+    private CompanyHierarchyService companyHierarchyService;
+
     /**
      * Gümrük firması oluştur (SUPER_ADMIN)
      */
@@ -67,6 +70,7 @@ public class CompanyService {
             subscription.setBrokerCompany(savedCompany);
             subscription.setCreatedByAdmin(createdBy);
             subscriptionRepository.save(subscription);
+            limitCheckService.evictLimitsAfterCommit(savedCompany.getId());
 
             // 3. UsageTracking oluştur (aynı transaction içinde)
             UsageTracking tracking = new UsageTracking();
@@ -129,6 +133,7 @@ public class CompanyService {
 
             // 1. Client'ı kaydet
             Company savedClient = companyRepository.save(clientCompany);
+            companyHierarchyService.clientChangedAfterCommit(savedClient);
 
             // 2. UsageTracking güncelle (aynı transaction içinde)
             updateUsageTrackingAfterClientAdd(brokerCompany);
@@ -211,6 +216,7 @@ public class CompanyService {
             // Soft delete
             company.setIsActive(false);
             companyRepository.save(company);
+            companyHierarchyService.clientChangedAfterCommit(company);
 
             // CLIENT firma ise UsageTracking güncelle (aynı transaction içinde)
             if (company.isClient() && company.getParentBroker() != null) {
@@ -1,5 +1,10 @@
 package com.gcodes.aacctracker.service;
 
+import com.gcodes.aacctracker.dto.CursorPage;
+import com.gcodes.aacctracker.dto.KeysetCursor;
+import com.gcodes.aacctracker.dto.TransactionBulkStatusRequest;
+import com.gcodes.aacctracker.dto.TransactionBulkStatusResult;
+import com.gcodes.aacctracker.dto.TransactionSummaryResponse;
 import com.gcodes.aacctracker.model.Company;
 import com.gcodes.aacctracker.model.CustomsTransaction;
 import com.gcodes.aacctracker.model.TransactionStatus;
@@ -9,13 +14,21 @@ import com.gcodes.aacctracker.repository.CustomsTransactionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -23,6 +36,15 @@ public class CustomsTransactionService {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomsTransactionService.class);
 
+    // ✅ Keyset sayfalama varsayılanları
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    private static final int RECENT_LIMIT = 10;
+    public static final int MAX_BULK_SIZE = 1000;
+
+    private static final String MYSQL_DUPLICATE_KEY_STATE = "23000";
+    private static final int MYSQL_DUPLICATE_KEY_ERROR = 1062;
+
     @Autowired
     private CustomsTransactionRepository transactionRepository;
 
@@ -32,10 +54,18 @@ public class CustomsTransactionService {
     @Autowired
     private AgencyAgreementService agencyAgreementService;
 
+    @Autowired
+    private TransactionSearchService searchService;
+
+    @Autowired
+    private FileNoFilter fileNoFilter;
+
     // ✅ YENİ: İşlem oluşturma
     public CustomsTransaction createTransaction(CustomsTransaction transaction, User createdBy) {
         // ✅ Validasyon: fileNo benzersiz olmalı
-        if (transactionRepository.findByFileNo(transaction.getFileNo()).isPresent()) {
+        // Filtre "kesinlikle yok" derse sorgu atlanır; çakışmayı unique index yakalar (aşağıda çevrilir)
+        if (fileNoFilter.mightContain(transaction.getFileNo())
+                && transactionRepository.findByFileNo(transaction.getFileNo()).isPresent()) {
             throw new RuntimeException("Transaction with this fileNo already exists: " + transaction.getFileNo());
         }
 
@@ -70,10 +100,21 @@ public class CustomsTransactionService {
         // ✅ İşlem süresini hesapla
         transaction.calculateProcessingTime();
 
-        CustomsTransaction saved = transactionRepository.save(transaction);
+        CustomsTransaction saved;
+        try {
+            saved = transactionRepository.saveAndFlush(transaction);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateKey(e)) {
+                throw new RuntimeException("Transaction with this fileNo already exists: " + transaction.getFileNo());
+            }
+            throw e;
+        }
+        fileNoFilter.put(saved.getFileNo());
+
         logger.info("Transaction created: {} - FileNo: {}, Broker: {}, Client: {}",
                 saved.getId(), saved.getFileNo(), broker.getName(), client.getName());
 
+        searchService.indexAfterCommit(saved);
         return saved;
     }
 
@@ -82,14 +123,24 @@ public class CustomsTransactionService {
         CustomsTransaction transaction = transactionRepository.findById(transactionId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
 
+        return updateTransaction(transaction, updatedData, updatingUser);
+    }
+
+    // ✅ YENİ: İstek kapsamında zaten yüklenmiş işlem ile güncelleme
+    public CustomsTransaction updateTransaction(CustomsTransaction transaction, CustomsTransaction updatedData,
+                                                User updatingUser) {
+        Long transactionId = transaction.getId();
+
         // ✅ Sadece PENDING durumunda güncelleme yapılabilir
         if (!TransactionStatus.PENDING.equals(transaction.getStatus())) {
             throw new RuntimeException("Can only update transactions in PENDING status");
         }
 
         // ✅ FileNo değiştirilmeye çalışılıyorsa validasyon yap
-        if (!transaction.getFileNo().equals(updatedData.getFileNo())) {
-            if (transactionRepository.findByFileNo(updatedData.getFileNo()).isPresent()) {
+        boolean fileNoChanged = !transaction.getFileNo().equals(updatedData.getFileNo());
+        if (fileNoChanged) {
+            if (fileNoFilter.mightContain(updatedData.getFileNo())
+                    && transactionRepository.findByFileNo(updatedData.getFileNo()).isPresent()) {
                 throw new RuntimeException("Another transaction with this fileNo already exists");
             }
             transaction.setFileNo(updatedData.getFileNo());
@@ -117,9 +168,24 @@ public class CustomsTransactionService {
         transaction.setUpdatedAt(LocalDateTime.now());
         transaction.setLastModifiedBy(updatingUser.getEmail());
 
-        CustomsTransaction updated = transactionRepository.save(transaction);
+        CustomsTransaction updated;
+        if (fileNoChanged) {
+            // Çakışma commit anında değil burada yakalansın diye hemen flush edilir
+            try {
+                updated = transactionRepository.saveAndFlush(transaction);
+            } catch (DataIntegrityViolationException e) {
+                if (isDuplicateKey(e)) {
+                    throw new RuntimeException("Another transaction with this fileNo already exists");
+                }
+                throw e;
+            }
+            fileNoFilter.put(updated.getFileNo());
+        } else {
+            updated = transactionRepository.save(transaction);
+        }
         logger.info("Transaction updated: {} by {}", transactionId, updatingUser.getEmail());
 
+        searchService.indexAfterCommit(updated);
         return updated;
     }
 
@@ -128,15 +194,25 @@ public class CustomsTransactionService {
         CustomsTransaction transaction = transactionRepository.findById(transactionId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
 
+        return updateTransactionStatus(transaction, newStatus, updatingUser);
+    }
+
+    public CustomsTransaction updateTransactionStatus(CustomsTransaction transaction, TransactionStatus newStatus,
+                                                      User updatingUser) {
+        applyStatus(transaction, newStatus, updatingUser);
+
+        CustomsTransaction updated = transactionRepository.save(transaction);
+        searchService.indexAfterCommit(updated);
+        return updated;
+    }
+
+    private void applyStatus(CustomsTransaction transaction, TransactionStatus newStatus, User updatingUser) {
         transaction.setStatus(newStatus);
         transaction.setUpdatedAt(LocalDateTime.now());
         transaction.setLastModifiedBy(updatingUser.getEmail());
 
-        CustomsTransaction updated = transactionRepository.save(transaction);
         logger.info("Transaction status updated: {} - New status: {} by {}",
-                transactionId, newStatus, updatingUser.getEmail());
-
-        return updated;
+                transaction.getId(), newStatus, updatingUser.getEmail());
     }
 
     // ✅ İşlemi tamamla
@@ -144,11 +220,100 @@ public class CustomsTransactionService {
         return updateTransactionStatus(transactionId, TransactionStatus.COMPLETED, completedBy);
     }
 
+    public CustomsTransaction completeTransaction(CustomsTransaction transaction, User completedBy) {
+        return updateTransactionStatus(transaction, TransactionStatus.COMPLETED, completedBy);
+    }
+
     // ✅ İşlemi iptal et
     public CustomsTransaction cancelTransaction(Long transactionId, String reason, User cancelledBy) {
-        CustomsTransaction transaction = updateTransactionStatus(transactionId, TransactionStatus.CANCELLED, cancelledBy);
-        transaction.setDelayReason(reason);
-        return transactionRepository.save(transaction);
+        CustomsTransaction transaction = transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+
+        return cancelTransaction(transaction, reason, cancelledBy);
+    }
+
+    public CustomsTransaction cancelTransaction(CustomsTransaction existing, String reason, User cancelledBy) {
+        applyStatus(existing, TransactionStatus.CANCELLED, cancelledBy);
+        existing.setDelayReason(reason);
+
+        // Durum ve sebep tek kayıtla yazılır, indeks commit sonrası bir kez güncellenir
+        CustomsTransaction cancelled = transactionRepository.save(existing);
+        searchService.indexAfterCommit(cancelled);
+        return cancelled;
+    }
+
+    /**
+     * Toplu durum değişikliği.
+     * <p>
+     * KURALLAR:
+     * - İşlemler ya id listesiyle ya da filtreyle seçilir, en fazla MAX_BULK_SIZE kayıt
+     * - Yetki tüm küme için tek sorguyla kontrol edilir; kapsam dışı tek bir id bile varsa hiçbir kayıt değişmez
+     * - Güncelleme tek bir UPDATE ile yapılır (entity'ler yüklenmez)
+     */
+    public TransactionBulkStatusResult bulkUpdateStatus(TransactionBulkStatusRequest request, TransactionScope scope,
+                                                       User updatingUser) {
+        List<Long> ids;
+
+        if (request.hasIds()) {
+            if (hasFilter(request)) {
+                throw new RuntimeException("Provide either ids or a filter, not both");
+            }
+
+            ids = request.getIds().stream().distinct().toList();
+            if (ids.size() > MAX_BULK_SIZE) {
+                throw new RuntimeException("At most " + MAX_BULK_SIZE + " transactions can be updated at once");
+            }
+
+            List<Long> accessible = transactionRepository.findIdsInScope(ids, scope.getBrokerCompanyId());
+            if (accessible.size() != ids.size()) {
+                Set<Long> accessibleSet = new HashSet<>(accessible);
+                List<Long> rejected = ids.stream().filter(id -> !accessibleSet.contains(id)).toList();
+                throw new RuntimeException("Transactions not found or not accessible: " + rejected);
+            }
+        } else {
+            if (!hasFilter(request)) {
+                throw new RuntimeException("Either ids or a filter is required");
+            }
+
+            // Kapsam, istenen brokerCompanyId'yi zaten içerir (SUPER_ADMIN dışında kullanıcının kendi firması)
+            ids = transactionRepository.findIdsByFilter(
+                    scope.getBrokerCompanyId(),
+                    request.getClientCompanyId(), request.getCurrentStatus(),
+                    request.getRegistrationDateFrom(), request.getRegistrationDateTo(),
+                    PageRequest.of(0, MAX_BULK_SIZE + 1));
+
+            if (ids.size() > MAX_BULK_SIZE) {
+                throw new RuntimeException("Filter matches more than " + MAX_BULK_SIZE
+                        + " transactions; narrow it down");
+            }
+        }
+
+        if (ids.isEmpty()) {
+            return new TransactionBulkStatusResult(request.getStatus(), 0, List.of(), Map.of());
+        }
+
+        // Audit farkı için önceki durumlar (aynı transaction içinde, UPDATE'ten hemen önce)
+        Map<Long, TransactionStatus> previousStatuses = new LinkedHashMap<>();
+        for (Object[] row : transactionRepository.findStatusesByIds(ids)) {
+            previousStatuses.put((Long) row[0], (TransactionStatus) row[1]);
+        }
+
+        int updated = transactionRepository.updateStatusByIds(
+                ids, request.getStatus(), LocalDateTime.now(), updatingUser.getEmail());
+
+        logger.info("Bulk status update: {} transactions - New status: {} by {}",
+                updated, request.getStatus(), updatingUser.getEmail());
+
+        searchService.indexByIdsAfterCommit(ids);
+        return new TransactionBulkStatusResult(request.getStatus(), updated, ids, previousStatuses);
+    }
+
+    private boolean hasFilter(TransactionBulkStatusRequest request) {
+        return request.getBrokerCompanyId() != null
+                || request.getClientCompanyId() != null
+                || request.getCurrentStatus() != null
+                || request.getRegistrationDateFrom() != null
+                || request.getRegistrationDateTo() != null;
     }
 
     // ✅ Dosya numarasına göre işlem bul
@@ -162,20 +327,41 @@ public class CustomsTransactionService {
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
     }
 
-    // ✅ Broker'ın tüm işlemleri
-    public List<CustomsTransaction> getBrokerTransactions(Long brokerId) {
-        Company broker = companyRepository.findById(brokerId)
-                .orElseThrow(() -> new RuntimeException("Broker company not found"));
-
-        return transactionRepository.findByBrokerCompany(broker);
+    // ✅ YENİ: Broker işlemleri - keyset (cursor) sayfalama
+    // Tüm listeyi belleğe almak yerine (createdAt, id) imlecinden itibaren bir sayfa döner
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionSummaryResponse> getBrokerTransactionsPage(Long brokerId, TransactionStatus status,
+                                                                    LocalDate fromDate, LocalDate toDate,
+                                                                    String cursor, Integer size) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int pageSize = normalizePageSize(size);
+
+        List<TransactionSummaryResponse> rows = transactionRepository.findBrokerPage(
+                brokerId, status, startOfDay(fromDate), startOfNextDay(toDate),
+                position != null ? position.getPosition() : null,
+                position != null ? position.getId() : null,
+                PageRequest.of(0, pageSize + 1));
+
+        return CursorPage.fromOverfetched(rows, pageSize,
+                t -> new KeysetCursor(t.getCreatedAt(), t.getId()));
     }
 
-    // ✅ Client'in tüm işlemleri
-    public List<CustomsTransaction> getClientTransactions(Long clientId) {
-        Company client = companyRepository.findById(clientId)
-                .orElseThrow(() -> new RuntimeException("Client company not found"));
-
-        return transactionRepository.findByClientCompanyOrderByCreatedAtDesc(client);
+    // ✅ YENİ: Client işlemleri - keyset (cursor) sayfalama
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionSummaryResponse> getClientTransactionsPage(Long clientId, TransactionStatus status,
+                                                                    LocalDate fromDate, LocalDate toDate,
+                                                                    String cursor, Integer size) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int pageSize = normalizePageSize(size);
+
+        List<TransactionSummaryResponse> rows = transactionRepository.findClientPage(
+                clientId, status, startOfDay(fromDate), startOfNextDay(toDate),
+                position != null ? position.getPosition() : null,
+                position != null ? position.getId() : null,
+                PageRequest.of(0, pageSize + 1));
+
+        return CursorPage.fromOverfetched(rows, pageSize,
+                t -> new KeysetCursor(t.getCreatedAt(), t.getId()));
     }
 
     // ✅ Broker ve Client arasındaki işlemler
@@ -202,9 +388,21 @@ public class CustomsTransactionService {
         return transactionRepository.findByBrokerCompanyAndStatus(broker, status);
     }
 
-    // ✅ Gecikme olan işlemler
-    public List<CustomsTransaction> getTransactionsWithDelay() {
-        return transactionRepository.findTransactionsWithDelay();
+    // ✅ YENİ: Gecikmeli işlemler - kullanıcı kapsamında, keyset sayfalı
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionSummaryResponse> getDelayedTransactionsPage(TransactionScope scope,
+                                                                             String cursor, Integer size) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int pageSize = normalizePageSize(size);
+
+        List<TransactionSummaryResponse> rows = transactionRepository.findDelayedPage(
+                scope.getBrokerCompanyId(), scope.getClientCompanyId(),
+                position != null ? position.getPosition() : null,
+                position != null ? position.getId() : null,
+                PageRequest.of(0, pageSize + 1));
+
+        return CursorPage.fromOverfetched(rows, pageSize,
+                t -> new KeysetCursor(t.getCreatedAt(), t.getId()));
     }
 
     // ✅ Broker'ın gecikme olan işlemleri
@@ -215,14 +413,37 @@ public class CustomsTransactionService {
         return transactionRepository.findDelayedTransactionsByBroker(broker);
     }
 
-    // ✅ Tarih aralığında işlemler
-    public List<CustomsTransaction> getTransactionsByDateRange(LocalDate startDate, LocalDate endDate) {
-        return transactionRepository.findByRegistrationDateBetween(startDate, endDate);
+    // ✅ YENİ: Tescil tarihi aralığındaki işlemler - kullanıcı kapsamında, keyset sayfalı
+    // Kapsam (broker/client) sorgunun WHERE koşuluna girer; sonuç sonradan filtrelenmez
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionSummaryResponse> getTransactionsByDateRangePage(TransactionScope scope, Long clientId,
+                                                                                 LocalDate startDate, LocalDate endDate,
+                                                                                 TransactionStatus status,
+                                                                                 String cursor, Integer size) {
+        if (startDate.isAfter(endDate)) {
+            throw new RuntimeException("startDate must be before or equal to endDate");
+        }
+
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int pageSize = normalizePageSize(size);
+
+        // Client kullanıcısı kendi firmasına sabitlenir; broker kapsamında clientId opsiyonel daraltmadır
+        Long effectiveClientId = scope.getClientCompanyId() != null ? scope.getClientCompanyId() : clientId;
+
+        List<TransactionSummaryResponse> rows = transactionRepository.findRegistrationDatePage(
+                scope.getBrokerCompanyId(), effectiveClientId, startDate, endDate, status,
+                position != null ? position.getPosition().toLocalDate() : null,
+                position != null ? position.getId() : null,
+                PageRequest.of(0, pageSize + 1));
+
+        return CursorPage.fromOverfetched(rows, pageSize,
+                t -> new KeysetCursor(t.getRegistrationDate().atStartOfDay(), t.getId()));
     }
 
-    // ✅ Son 10 işlem
-    public List<CustomsTransaction> getRecentTransactions() {
-        return transactionRepository.findRecentTransactions();
+    // ✅ Son 10 işlem (özet projeksiyon)
+    @Transactional(readOnly = true)
+    public List<TransactionSummaryResponse> getRecentTransactions() {
+        return transactionRepository.findRecentSummaries(PageRequest.of(0, RECENT_LIMIT));
     }
 
     // ✅ Broker'ın son işlemleri
@@ -256,4 +477,38 @@ public class CustomsTransactionService {
 
         return transactionRepository.countByClientCompany(client);
     }
-}
\ No newline at end of file
+
+    // ===== HELPER METODLARI =====
+
+    private int normalizePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private LocalDateTime startOfDay(LocalDate date) {
+        return date != null ? date.atStartOfDay() : null;
+    }
+
+    // Bitiş tarihi dahil: bir sonraki günün başlangıcına kadar (exclusive)
+    private LocalDateTime startOfNextDay(LocalDate date) {
+        return date != null ? date.plusDays(1).atStartOfDay() : null;
+    }
+
+    // Unique index ihlali (tablodaki tek unique anahtar file_no): Spring'in çevirisi veya
+    // MySQL hata kodu (SQLState 23000, vendor code 1062) ile; mesaj metnine bakılmaz
+    private boolean isDuplicateKey(DataIntegrityViolationException e) {
+        if (e instanceof DuplicateKeyException) {
+            return true;
+        }
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && MYSQL_DUPLICATE_KEY_STATE.equals(sqlException.getSQLState())
+                    && sqlException.getErrorCode() == MYSQL_DUPLICATE_KEY_ERROR) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -5,8 +5,10 @@ import com.gcodes.aacctracker.model.User;
 import com.gcodes.aacctracker.repository.CompanyRepository;
 import com.gcodes.aacctracker.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -15,6 +17,33 @@ import java.util.Map;
 @Service
 public class DashboardService {
 
+    // ===== ETag damgaları: /api/dashboard/stats yanıtını belirleyen değerler, tek satırlık tek sorgu =====
+
+    private static final String SUPER_ADMIN_STAMP_SQL =
+            "SELECT (SELECT COUNT(*) FROM users), " +
+            "(SELECT COUNT(*) FROM users WHERE is_active = TRUE), " +
+            "(SELECT COUNT(*) FROM companies), " +
+            "(SELECT COUNT(*) FROM companies WHERE is_active = TRUE), " +
+            "(SELECT COUNT(*) FROM companies WHERE company_type = 'CUSTOMS_BROKER' AND is_active = TRUE), " +
+            "(SELECT COUNT(*) FROM companies WHERE company_type = 'CLIENT' AND is_active = TRUE)";
+
+    private static final String BROKER_STAMP_SQL =
+            "SELECT c.name, c.company_type, " +
+            "(SELECT COUNT(*) FROM users u WHERE u.company_id = c.id AND u.is_active = TRUE), " +
+            "(SELECT MAX(u.updated_at) FROM users u WHERE u.company_id = c.id), " +
+            "(SELECT COUNT(*) FROM companies cl WHERE cl.parent_broker_id = c.id " +
+            "AND cl.company_type = 'CLIENT' AND cl.is_active = TRUE), " +
+            "(SELECT ut.last_updated FROM usage_tracking ut WHERE ut.broker_company_id = c.id), " +
+            "(SELECT MAX(bs.updated_at) FROM broker_subscriptions bs WHERE bs.broker_company_id = c.id) " +
+            "FROM companies c WHERE c.id = ?";
+
+    private static final String CLIENT_STAMP_SQL =
+            "SELECT c.name, c.company_type, pb.id, pb.name " +
+            "FROM companies c LEFT JOIN companies pb ON pb.id = c.parent_broker_id WHERE c.id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -32,6 +61,45 @@ public class DashboardService {
         }
     }
 
+    /**
+     * Dashboard istatistiklerinin sürüm damgası (koşullu GET için).
+     * <p>
+     * KURALLAR:
+     * - İstatistikler hesaplanmadan, firma/abonelik entity'leri yüklenmeden tek sorguyla okunur
+     * - İstatistiklerden biri değiştiğinde damga da değişir (sayılar, son güncelleme zamanları, firma adları)
+     * - Broker damgası günü de içerir (abonelik bitişine kalan gün)
+     */
+    public List<Object> getStatsVersion(User currentUser) {
+        List<Object> version = new ArrayList<>();
+        version.add(currentUser.getGlobalRole());
+
+        Long companyId = currentUser.getCompany() != null ? currentUser.getCompany().getId() : null;
+        if (currentUser.isSuperAdmin()) {
+            version.addAll(queryRow(SUPER_ADMIN_STAMP_SQL));
+        } else if (currentUser.isBrokerStaff() && companyId != null) {
+            version.add(companyId);
+            version.add(LocalDate.now());
+            version.addAll(queryRow(BROKER_STAMP_SQL, companyId));
+        } else if (currentUser.isClientUser() && companyId != null) {
+            version.add(companyId);
+            version.addAll(queryRow(CLIENT_STAMP_SQL, companyId));
+        }
+        return version;
+    }
+
+    private List<Object> queryRow(String sql, Object... args) {
+        return jdbcTemplate.query(sql, rs -> {
+            List<Object> row = new ArrayList<>();
+            if (rs.next()) {
+                int columns = rs.getMetaData().getColumnCount();
+                for (int i = 1; i <= columns; i++) {
+                    row.add(rs.getObject(i));
+                }
+            }
+            return row;
+        }, args);
+    }
+
     private DashboardStatsResponse getSuperAdminStats() {
         long totalUsers = userRepository.count();
         long totalCompanies = companyRepository.count();
@@ -0,0 +1,80 @@
+package com.gcodes.aacctracker.service;
+
+import com.gcodes.aacctracker.model.PasswordResetToken;
+import com.gcodes.aacctracker.repository.PasswordResetTokenRepository;
+import com.gcodes.aacctracker.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Veritabanı tabanlı sıfırlama token deposu (password_reset_tokens tablosu).
+ * <p>
+ * KURALLAR:
+ * - Token'lar kendi tablosunda saklanır; yeniden başlatmada kaybolmaz ve tüm instance'lar tarafından görülür
+ * - Admin onaylı sıfırlama istekleri (password_reset_requests) bu depoya girmez, bu depodaki token'lar da
+ *   admin akışında (PasswordResetRequestService) kullanılamaz
+ * - consume, satırı koşullu bir DELETE ile siler; eşzamanlı kullanımda tek istek kazanır
+ * - Süresi dolan token'lar zamanlanmış olarak silinir
+ */
+@Component
+@ConditionalOnProperty(name = "password-reset.token-store", havingValue = "database", matchIfMissing = true)
+public class DatabaseResetTokenStore implements ResetTokenStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseResetTokenStore.class);
+
+    @Autowired
+    private PasswordResetTokenRepository tokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Override
+    @Transactional
+    public void save(String token, Long userId, Duration ttl) {
+        PasswordResetToken resetToken = new PasswordResetToken();
+        resetToken.setToken(token);
+        resetToken.setUser(userRepository.getReferenceById(userId));
+        resetToken.setExpiresAt(LocalDateTime.now().plus(ttl));
+        tokenRepository.save(resetToken);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findUserId(String token) {
+        return findValid(token).map(resetToken -> resetToken.getUser().getId());
+    }
+
+    @Override
+    @Transactional
+    public Optional<Long> consume(String token) {
+        return findValid(token)
+                .filter(resetToken -> tokenRepository.deleteIfValid(resetToken.getId(), LocalDateTime.now()) > 0)
+                .map(resetToken -> resetToken.getUser().getId());
+    }
+
+    @Scheduled(fixedDelayString = "${password-reset.cleanup-interval:PT15M}")
+    @Transactional
+    public void clearExpiredTokens() {
+        int deleted = tokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Deleted {} expired password reset tokens", deleted);
+        }
+    }
+
+    private Optional<PasswordResetToken> findValid(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        return tokenRepository.findByToken(token)
+                .filter(resetToken -> !resetToken.isExpired(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,164 @@
+package com.gcodes.aacctracker.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Kayıtlı dosya numaraları için bellek içi Bloom filtresi.
+ * <p>
+ * KURALLAR:
+ * - "Kesinlikle yok" cevabı güvenilirdir; bu durumda benzersizlik sorgusu atlanır
+ *   ve file_no üzerindeki unique index son savunma hattı olarak kalır
+ * - "Belki var" cevabında çağıran taraf veritabanına sorar
+ * - Filtre açılışta veritabanından doldurulur; dolum bitene kadar her cevap "belki var"dır
+ * - Silinen veya değiştirilen numaralar filtreden çıkarılamaz; sadece yanlış pozitif üretir (DB'ye sorulur)
+ */
+@Component
+public class FileNoFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileNoFilter.class);
+
+    @Value("${transactions.file-no-filter.expected-insertions:2000000}")
+    private long expectedInsertions;
+
+    @Value("${transactions.file-no-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private AtomicLongArray bits;
+    private long bitCount;
+    private int hashCount;
+
+    private final AtomicLong insertions = new AtomicLong();
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void init() {
+        // Standart Bloom boyutlandırması: m = -n ln(p) / (ln 2)^2, k = m/n ln 2
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        bitCount = Math.max(64, (m + 63) / 64 * 64);
+        hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        bits = new AtomicLongArray((int) (bitCount / 64));
+
+        logger.info("FileNo filter allocated: {} bits ({} KB), {} hash functions",
+                bitCount, bitCount / 8 / 1024, hashCount);
+    }
+
+    /**
+     * Mevcut dosya numaralarını satır satır okuyarak filtreyi doldurur.
+     * Açılışı bekletmemek için arka planda çalışır.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        Thread thread = new Thread(this::seed, "file-no-filter-seed");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void seed() {
+        long startTime = System.currentTimeMillis();
+
+        try {
+            // MySQL Connector/J: fetchSize=Integer.MIN_VALUE sonuç kümesini satır satır akıtır
+            JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+            streaming.setFetchSize(Integer.MIN_VALUE);
+            streaming.query("SELECT file_no FROM customs_transactions",
+                    (RowCallbackHandler) rs -> put(rs.getString(1)));
+
+            ready = true;
+            logger.info("FileNo filter seeded with {} entries in {} ms",
+                    insertions.get(), System.currentTimeMillis() - startTime);
+
+            if (insertions.get() > expectedInsertions) {
+                logger.warn("FileNo filter holds more entries ({}) than sized for ({}); false positive rate will rise",
+                        insertions.get(), expectedInsertions);
+            }
+        } catch (Exception e) {
+            // Filtre hazır olmazsa her cevap "belki var" kalır; davranış eskisi gibi DB sorgusudur
+            logger.error("FileNo filter could not be seeded: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * false → numara kesinlikle kayıtlı değil; true → kayıtlı olabilir (DB'ye sorulmalı)
+     */
+    public boolean mightContain(String fileNo) {
+        if (!ready || fileNo == null) {
+            return true;
+        }
+
+        long hash = hash(fileNo);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashCount; i++) {
+            long index = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Yeni eklenen numarayı kaydeder. Geri alınan (rollback) bir ekleme sadece yanlış pozitif bırakır.
+     */
+    public void put(String fileNo) {
+        if (fileNo == null) {
+            return;
+        }
+
+        long hash = hash(fileNo);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashCount; i++) {
+            long index = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+        insertions.incrementAndGet();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // FNV-1a (64 bit) + MurmurHash3 fmix64 karıştırması; iki 32 bitlik yarı çift hash olarak kullanılır
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,83 @@
+package com.gcodes.aacctracker.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Bellek içi sıfırlama token deposu (tek instance / geliştirme için).
+ * <p>
+ * KURALLAR:
+ * - Her token kendi son kullanma anında düşer: Caffeine'in zamanlayıcı tekerleği (timer wheel)
+ *   ve sistem zamanlayıcısı süresi dolan kayıtları erişim beklemeden temizler
+ * - Thread-safe'tir; consume atomik bir silmedir
+ * - Yeniden başlatmada token'lar kaybolur (kalıcılık için "database" deposu kullanılmalı)
+ */
+@Component
+@ConditionalOnProperty(name = "password-reset.token-store", havingValue = "memory")
+public class InMemoryResetTokenStore implements ResetTokenStore {
+
+    private final Cache<String, TokenEntry> tokens = Caffeine.newBuilder()
+            .expireAfter(new Expiry<String, TokenEntry>() {
+                @Override
+                public long expireAfterCreate(String token, TokenEntry entry, long currentTime) {
+                    return entry.nanosUntilExpiry();
+                }
+
+                @Override
+                public long expireAfterUpdate(String token, TokenEntry entry, long currentTime, long currentDuration) {
+                    return entry.nanosUntilExpiry();
+                }
+
+                @Override
+                public long expireAfterRead(String token, TokenEntry entry, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .scheduler(Scheduler.systemScheduler())
+            .build();
+
+    @Override
+    public void save(String token, Long userId, Duration ttl) {
+        tokens.put(token, new TokenEntry(userId, Instant.now().plus(ttl)));
+    }
+
+    @Override
+    public Optional<Long> findUserId(String token) {
+        TokenEntry entry = token != null ? tokens.getIfPresent(token) : null;
+        return entry != null && !entry.isExpired() ? Optional.of(entry.userId) : Optional.empty();
+    }
+
+    @Override
+    public Optional<Long> consume(String token) {
+        TokenEntry entry = token != null ? tokens.asMap().remove(token) : null;
+        return entry != null && !entry.isExpired() ? Optional.of(entry.userId) : Optional.empty();
+    }
+
+    // ===== INNER CLASS =====
+
+    private static final class TokenEntry {
+        private final Long userId;
+        private final Instant expiresAt;
+
+        private TokenEntry(Long userId, Instant expiresAt) {
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return !Instant.now().isBefore(expiresAt);
+        }
+
+        long nanosUntilExpiry() {
+            return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+        }
+    }
+}
@@ -9,12 +9,23 @@ import com.gcodes.aacctracker.repository.BrokerSubscriptionRepository;
 import com.gcodes.aacctracker.repository.CompanyRepository;
 import com.gcodes.aacctracker.repository.UsageTrackingRepository;
 import com.gcodes.aacctracker.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
 @Service
 @Transactional
 public class LimitCheckService {
@@ -33,14 +44,55 @@ public class LimitCheckService {
     @Autowired
     private CompanyRepository companyRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${subscriptions.limits-cache.max-size:10000}")
+    private long limitsCacheMaxSize;
+
+    @Value("${subscriptions.limits-cache.ttl:10m}")
+    private Duration limitsCacheTtl;
+
+    private Cache<Long, EffectiveLimits> limitsCache;
+
+    @PostConstruct
+    public void init() {
+        long ttlNanos = limitsCacheTtl.toNanos();
+
+        limitsCache = Caffeine.newBuilder()
+                .maximumSize(limitsCacheMaxSize)
+                .expireAfter(new Expiry<Long, EffectiveLimits>() {
+                    @Override
+                    public long expireAfterCreate(Long key, EffectiveLimits limits, long currentTime) {
+                        return Math.min(ttlNanos, limits.nanosUntilExpiry(LocalDateTime.now()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long key, EffectiveLimits limits, long currentTime,
+                                                  long currentDuration) {
+                        return Math.min(ttlNanos, limits.nanosUntilExpiry(LocalDateTime.now()));
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long key, EffectiveLimits limits, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, limitsCache, "subscriptions.limits");
+    }
+
     /**
      * Gümrük firması yeni kullanıcı ekleyebilir mi?
      */
     public boolean canAddBrokerUser(Long brokerCompanyId) {
         try {
-            BrokerSubscription subscription = getActiveSubscription(brokerCompanyId);
+            EffectiveLimits limits = getEffectiveLimits(brokerCompanyId);
             UsageTracking usage = getOrCreateUsageTracking(brokerCompanyId);
-            int maxUsers = subscription.getEffectiveMaxBrokerUsers();
+            int maxUsers = limits.maxBrokerUsers;
 
             return usage.getCurrentBrokerUsers() < maxUsers;
         } catch (Exception e) {
@@ -54,9 +106,9 @@ public class LimitCheckService {
      */
     public boolean canAddClientCompany(Long brokerCompanyId) {
         try {
-            BrokerSubscription subscription = getActiveSubscription(brokerCompanyId);
+            EffectiveLimits limits = getEffectiveLimits(brokerCompanyId);
             UsageTracking usage = getOrCreateUsageTracking(brokerCompanyId);
-            int maxClients = subscription.getEffectiveMaxClientCompanies();
+            int maxClients = limits.maxClientCompanies;
 
             return usage.getCurrentClientCompanies() < maxClients;
         } catch (Exception e) {
@@ -70,9 +122,9 @@ public class LimitCheckService {
      */
     public int getRemainingUserQuota(Long brokerCompanyId) {
         try {
-            BrokerSubscription subscription = getActiveSubscription(brokerCompanyId);
+            EffectiveLimits limits = getEffectiveLimits(brokerCompanyId);
             UsageTracking usage = getOrCreateUsageTracking(brokerCompanyId);
-            int maxUsers = subscription.getEffectiveMaxBrokerUsers();
+            int maxUsers = limits.maxBrokerUsers;
 
             return Math.max(0, maxUsers - usage.getCurrentBrokerUsers());
         } catch (Exception e) {
@@ -86,9 +138,9 @@ public class LimitCheckService {
      */
     public int getRemainingClientQuota(Long brokerCompanyId) {
         try {
-            BrokerSubscription subscription = getActiveSubscription(brokerCompanyId);
+            EffectiveLimits limits = getEffectiveLimits(brokerCompanyId);
             UsageTracking usage = getOrCreateUsageTracking(brokerCompanyId);
-            int maxClients = subscription.getEffectiveMaxClientCompanies();
+            int maxClients = limits.maxClientCompanies;
 
             return Math.max(0, maxClients - usage.getCurrentClientCompanies());
         } catch (Exception e) {
@@ -101,26 +153,51 @@ public class LimitCheckService {
      * Limit bilgilerini getir
      */
     public LimitInfo getLimitInfo(Long brokerCompanyId) {
-        BrokerSubscription subscription = getActiveSubscription(brokerCompanyId);
+        EffectiveLimits limits = getEffectiveLimits(brokerCompanyId);
         UsageTracking usage = getOrCreateUsageTracking(brokerCompanyId);
 
         return new LimitInfo(
-                subscription.getEffectiveMaxBrokerUsers(),
+                limits.maxBrokerUsers,
                 usage.getCurrentBrokerUsers(),
-                subscription.getEffectiveMaxClientCompanies(),
+                limits.maxClientCompanies,
                 usage.getCurrentClientCompanies(),
-                subscription.getDaysUntilExpiry()
+                limits.getDaysUntilExpiry()
         );
     }
 
     /**
-     * Aktif aboneliği getir
+     * Aktif aboneliğin geçerli limitleri (önbellekten)
+     * <p>
+     * KURALLAR:
+     * - Kayıt en geç aboneliğin bitiş anında düşer; süresi dolmuş bir abonelik limiti hiçbir zaman dönmez
+     * - Aktif aboneliği olmayan broker'lar da (kısa süreli) önbelleğe alınır
+     * - Abonelik oluşturma/güncelleme/iptal {@link #evictLimitsAfterCommit(Long)} çağırır
      */
-    private BrokerSubscription getActiveSubscription(Long brokerCompanyId) {
-        return subscriptionRepository.findActiveBrokerSubscription(brokerCompanyId)
-                .orElseThrow(() -> new SubscriptionNotFoundException(
-                        "No active subscription found for broker company: " + brokerCompanyId
-                ));
+    private EffectiveLimits getEffectiveLimits(Long brokerCompanyId) {
+        EffectiveLimits limits = limitsCache.getIfPresent(brokerCompanyId);
+
+        // Önbellek süresi bitiş anına bağlı; yine de okuma anında bir kez daha kontrol edilir
+        if (limits == null || limits.isExpired(LocalDateTime.now())) {
+            limits = subscriptionRepository.findActiveBrokerSubscription(brokerCompanyId)
+                    .map(EffectiveLimits::of)
+                    .orElse(EffectiveLimits.NONE);
+            limitsCache.put(brokerCompanyId, limits);
+        }
+
+        if (limits == EffectiveLimits.NONE) {
+            throw new SubscriptionNotFoundException(
+                    "No active subscription found for broker company: " + brokerCompanyId);
+        }
+        return limits;
+    }
+
+    /**
+     * Broker'ın önbellekteki limitlerini commit sonrası düşürür.
+     */
+    public void evictLimitsAfterCommit(Long brokerCompanyId) {
+        if (brokerCompanyId != null) {
+            TransactionHooks.afterCommit(() -> limitsCache.invalidate(brokerCompanyId));
+        }
     }
 
     /**
@@ -165,6 +242,53 @@ public class LimitCheckService {
 
     // ===== INNER CLASS =====
 
+    /**
+     * Aboneliğin geçerli limitleri (plan + özel override'lar) ve bitiş anı. Değişmezdir.
+     */
+    static final class EffectiveLimits {
+        static final EffectiveLimits NONE = new EffectiveLimits(0, 0, null);
+
+        final int maxBrokerUsers;
+        final int maxClientCompanies;
+        final LocalDateTime endDate;
+
+        private EffectiveLimits(int maxBrokerUsers, int maxClientCompanies, LocalDateTime endDate) {
+            this.maxBrokerUsers = maxBrokerUsers;
+            this.maxClientCompanies = maxClientCompanies;
+            this.endDate = endDate;
+        }
+
+        static EffectiveLimits of(BrokerSubscription subscription) {
+            return new EffectiveLimits(
+                    subscription.getEffectiveMaxBrokerUsers(),
+                    subscription.getEffectiveMaxClientCompanies(),
+                    subscription.getEndDate()
+            );
+        }
+
+        boolean isExpired(LocalDateTime now) {
+            return endDate != null && now.isAfter(endDate);
+        }
+
+        // BrokerSubscription.getDaysUntilExpiry ile aynı
+        long getDaysUntilExpiry() {
+            if (endDate == null) return -1;
+            return ChronoUnit.DAYS.between(LocalDateTime.now(), endDate);
+        }
+
+        long nanosUntilExpiry(LocalDateTime now) {
+            if (endDate == null) {
+                return Long.MAX_VALUE;
+            }
+            Duration remaining = Duration.between(now, endDate);
+            if (remaining.isNegative()) {
+                return 0;
+            }
+            // toNanos ~292 yıl sonrası için taşar
+            return remaining.getSeconds() >= Long.MAX_VALUE / 1_000_000_000L ? Long.MAX_VALUE : remaining.toNanos();
+        }
+    }
+
     public static class LimitInfo {
         public final int maxBrokerUsers;
         public final int currentBrokerUsers;
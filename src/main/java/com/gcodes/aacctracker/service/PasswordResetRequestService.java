@@ -4,10 +4,10 @@ import com.gcodes.aacctracker.exception.UnauthorizedException;
 import com.gcodes.aacctracker.model.*;
 import com.gcodes.aacctracker.repository.PasswordResetRequestRepository;
 import com.gcodes.aacctracker.repository.UserRepository;
+import com.gcodes.aacctracker.security.PasswordHashingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,7 +29,10 @@ public class PasswordResetRequestService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private UserCache userCache;
 
     // @Autowired
     // private EmailService emailService; // İleride eklenecek
@@ -149,8 +152,10 @@ public class PasswordResetRequestService {
 
         // Şifreyi değiştir
         User user = request.getUser();
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashingService.encode(newPassword));
+        user.revokeIssuedTokens();
         userRepository.save(user);
+        userCache.invalidateAfterCommit(user.getId());
 
         // İsteği tamamlanmış olarak işaretle
         request.complete();
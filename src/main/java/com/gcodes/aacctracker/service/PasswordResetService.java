@@ -2,14 +2,14 @@ package com.gcodes.aacctracker.service;
 
 import com.gcodes.aacctracker.model.User;
 import com.gcodes.aacctracker.repository.UserRepository;
+import com.gcodes.aacctracker.security.PasswordHashingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -22,10 +22,17 @@ public class PasswordResetService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
-    // Basit in-memory token storage (Production'da Redis kullanın)
-    private Map<String, ResetTokenData> resetTokens = new HashMap<>();
+    @Autowired
+    private UserCache userCache;
+
+    // Token deposu "password-reset.token-store" ile seçilir (memory | database)
+    @Autowired
+    private ResetTokenStore resetTokenStore;
+
+    @Value("${password-reset.token-ttl:1h}")
+    private Duration tokenTtl;
 
     public void initiatePasswordReset(String email) {
         Optional<User> userOpt = userRepository.findByEmail(email);
@@ -34,9 +41,8 @@ public class PasswordResetService {
             User user = userOpt.get();
             String token = UUID.randomUUID().toString();
 
-            // Token'ı 1 saat süreyle sakla
-            long expiryTime = System.currentTimeMillis() + (60 * 60 * 1000); // 1 hour
-            resetTokens.put(token, new ResetTokenData(user.getId(), expiryTime));
+            // Token'ı yapılandırılan süreyle sakla (süresi dolunca depodan kendiliğinden düşer)
+            resetTokenStore.save(token, user.getId(), tokenTtl);
 
             // TODO: Email gönderme servisini buraya ekleyin
             logger.info("Password reset token generated for user: {} (Token: {})", email, token);
@@ -50,17 +56,7 @@ public class PasswordResetService {
     }
 
     public boolean validateResetToken(String token) {
-        ResetTokenData tokenData = resetTokens.get(token);
-        if (tokenData == null) {
-            return false;
-        }
-
-        if (System.currentTimeMillis() > tokenData.getExpiryTime()) {
-            resetTokens.remove(token); // Expired token'ı sil
-            return false;
-        }
-
-        return true;
+        return resetTokenStore.findUserId(token).isPresent();
     }
 
     public void resetPassword(String token, String newPassword) {
@@ -68,39 +64,25 @@ public class PasswordResetService {
             throw new RuntimeException("Invalid or expired reset token");
         }
 
-        ResetTokenData tokenData = resetTokens.get(token);
-        Optional<User> userOpt = userRepository.findById(tokenData.getUserId());
+        // Hash'leme token tüketilmeden önce: havuz doluysa (503) token kullanılabilir kalır
+        String encodedPassword = passwordHashingService.encode(newPassword);
+
+        // Token'ı atomik olarak tüket - eşzamanlı iki istekten yalnızca biri devam eder
+        Long userId = resetTokenStore.consume(token)
+                .orElseThrow(() -> new RuntimeException("Invalid or expired reset token"));
+
+        Optional<User> userOpt = userRepository.findById(userId);
 
         if (!userOpt.isPresent()) {
             throw new RuntimeException("User not found");
         }
 
         User user = userOpt.get();
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(encodedPassword);
+        user.revokeIssuedTokens();
         userRepository.save(user);
-
-        // Token'ı kullanıldıktan sonra sil
-        resetTokens.remove(token);
+        userCache.invalidateAfterCommit(user.getId());
 
         logger.info("Password reset successfully for user: {}", user.getEmail());
     }
-
-    // Token data class
-    private static class ResetTokenData {
-        private Long userId;
-        private long expiryTime;
-
-        public ResetTokenData(Long userId, long expiryTime) {
-            this.userId = userId;
-            this.expiryTime = expiryTime;
-        }
-
-        public Long getUserId() {
-            return userId;
-        }
-
-        public long getExpiryTime() {
-            return expiryTime;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package com.gcodes.aacctracker.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Şifre sıfırlama token'ları için depo (token → kullanıcı id).
+ * <p>
+ * KURALLAR:
+ * - Süresi dolmuş token'lar hiçbir metotta geçerli sayılmaz
+ * - {@link #consume(String)} tek kullanımlıktır: aynı token eşzamanlı iki istekte en fazla bir kez döner
+ * - Süresi dolan kayıtlar implementasyon tarafından zamanlanmış olarak temizlenir (okuma beklenmez)
+ * - Implementasyon "password-reset.token-store" ile seçilir: memory | database (varsayılan)
+ */
+public interface ResetTokenStore {
+
+    void save(String token, Long userId, Duration ttl);
+
+    /**
+     * Token geçerliyse sahibinin id'si (token tüketilmez)
+     */
+    Optional<Long> findUserId(String token);
+
+    /**
+     * Token geçerliyse siler ve sahibinin id'sini döner
+     */
+    Optional<Long> consume(String token);
+}
@@ -31,6 +31,9 @@ public class SubscriptionService {
     @Autowired
     private CompanyRepository companyRepository;
 
+    @Autowired
+    private LimitCheckService limitCheckService;
+
     /**
      * Abonelik planı oluştur (SUPER_ADMIN)
      */
@@ -78,6 +81,7 @@ public class SubscriptionService {
         subscription.setCreatedByAdmin(createdBy);
 
         BrokerSubscription saved = subscriptionRepository.save(subscription);
+        limitCheckService.evictLimitsAfterCommit(brokerCompanyId);
         logger.info("Broker subscription created for: {} - Plan: {} by {}",
                 brokerCompany.getName(), plan.getName(), createdBy.getEmail());
 
@@ -116,6 +120,7 @@ public class SubscriptionService {
         subscription.setCustomMaxClientCompanies(customMaxClients);
 
         BrokerSubscription saved = subscriptionRepository.save(subscription);
+        limitCheckService.evictLimitsAfterCommit(subscription.getBrokerCompany().getId());
         logger.info("Broker subscription updated: {} by {}", subscriptionId, updatedBy.getEmail());
 
         return saved;
@@ -136,6 +141,7 @@ public class SubscriptionService {
         subscription.setEndDate(LocalDateTime.now());
 
         subscriptionRepository.save(subscription);
+        limitCheckService.evictLimitsAfterCommit(subscription.getBrokerCompany().getId());
         logger.info("Broker subscription cancelled: {} by {}", subscriptionId, cancelledBy.getEmail());
     }
 
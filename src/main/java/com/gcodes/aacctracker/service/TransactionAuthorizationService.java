@@ -9,6 +9,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.function.Supplier;
+
 @Service
 public class TransactionAuthorizationService {
 
@@ -71,6 +73,15 @@ public class TransactionAuthorizationService {
      * - CLIENT_USER: Asla güncelleyemez (READ-ONLY)
      */
     public boolean canUpdateTransaction(User user, Long transactionId) {
+        return canUpdateTransaction(user, transactionId, () -> transactionRepository.findById(transactionId).orElse(null));
+    }
+
+    // ✅ YENİ: Aynı istekte zaten yüklenmiş işlem için (tekrar findById yapılmaz)
+    public boolean canUpdateTransaction(User user, CustomsTransaction transaction) {
+        return canUpdateTransaction(user, transaction.getId(), () -> transaction);
+    }
+
+    private boolean canUpdateTransaction(User user, Long transactionId, Supplier<CustomsTransaction> loader) {
         // SUPER_ADMIN her zaman güncelleyebilir
         if (user.isSuperAdmin()) {
             logAccessGranted(user, "UPDATE_TRANSACTION", transactionId);
@@ -83,7 +94,7 @@ public class TransactionAuthorizationService {
             return false;
         }
 
-        CustomsTransaction transaction = transactionRepository.findById(transactionId).orElse(null);
+        CustomsTransaction transaction = loader.get();
         if (transaction == null) {
             logger.warn("Transaction not found: {}", transactionId);
             return false;
@@ -119,6 +130,14 @@ public class TransactionAuthorizationService {
      * - CLIENT_USER: Silemez
      */
     public boolean canDeleteTransaction(User user, Long transactionId) {
+        return canDeleteTransaction(user, transactionId, () -> transactionRepository.findById(transactionId).orElse(null));
+    }
+
+    public boolean canDeleteTransaction(User user, CustomsTransaction transaction) {
+        return canDeleteTransaction(user, transaction.getId(), () -> transaction);
+    }
+
+    private boolean canDeleteTransaction(User user, Long transactionId, Supplier<CustomsTransaction> loader) {
         // SUPER_ADMIN her zaman silebilir
         if (user.isSuperAdmin()) {
             logAccessGranted(user, "DELETE_TRANSACTION", transactionId);
@@ -131,7 +150,7 @@ public class TransactionAuthorizationService {
             return false;
         }
 
-        CustomsTransaction transaction = transactionRepository.findById(transactionId).orElse(null);
+        CustomsTransaction transaction = loader.get();
         if (transaction == null) {
             logger.warn("Transaction not found: {}", transactionId);
             return false;
@@ -165,27 +184,29 @@ public class TransactionAuthorizationService {
      * - CLIENT_USER: Sadece kendi müşteri firmasının işlemlerini görebilir (READ-ONLY)
      */
     public boolean canViewTransaction(User user, Long transactionId) {
+        return canViewTransaction(user, transactionId, () -> transactionRepository.findById(transactionId).orElse(null));
+    }
+
+    public boolean canViewTransaction(User user, CustomsTransaction transaction) {
+        return canViewTransaction(user, transaction.getId(), () -> transaction);
+    }
+
+    /**
+     * Görme yetkisi - işlemin sadece firma id'leri ile (entity yüklenmeden; koşullu GET için)
+     */
+    public boolean canViewTransaction(User user, Long transactionId, Long brokerCompanyId, Long clientCompanyId) {
         // SUPER_ADMIN herkesi görebilir
         if (user.isSuperAdmin()) {
             logAccessGranted(user, "VIEW_TRANSACTION", transactionId);
             return true;
         }
 
-        CustomsTransaction transaction = transactionRepository.findById(transactionId).orElse(null);
-        if (transaction == null) {
-            logger.warn("Transaction not found: {}", transactionId);
-            return false;
-        }
-
-        Company transactionBroker = transaction.getBrokerCompany();
-        Company transactionClient = transaction.getClientCompany();
-
         // BROKER_ADMIN veya BROKER_USER - kendi broker firmasının işlemlerini görebilir
         if (user.isBrokerStaff()) {
             Company userBrokerCompany = user.getBrokerCompany();
 
-            if (userBrokerCompany != null && transactionBroker != null &&
-                    userBrokerCompany.getId().equals(transactionBroker.getId())) {
+            if (userBrokerCompany != null && brokerCompanyId != null &&
+                    userBrokerCompany.getId().equals(brokerCompanyId)) {
                 logAccessGranted(user, "VIEW_TRANSACTION", transactionId);
                 return true;
             }
@@ -195,8 +216,8 @@ public class TransactionAuthorizationService {
         if (user.isClientUser()) {
             Company userClientCompany = user.getCompany();
 
-            if (userClientCompany != null && transactionClient != null &&
-                    userClientCompany.getId().equals(transactionClient.getId())) {
+            if (userClientCompany != null && clientCompanyId != null &&
+                    userClientCompany.getId().equals(clientCompanyId)) {
                 logAccessGranted(user, "VIEW_TRANSACTION", transactionId);
                 return true;
             }
@@ -206,6 +227,27 @@ public class TransactionAuthorizationService {
         return false;
     }
 
+    private boolean canViewTransaction(User user, Long transactionId, Supplier<CustomsTransaction> loader) {
+        // SUPER_ADMIN herkesi görebilir
+        if (user.isSuperAdmin()) {
+            logAccessGranted(user, "VIEW_TRANSACTION", transactionId);
+            return true;
+        }
+
+        CustomsTransaction transaction = loader.get();
+        if (transaction == null) {
+            logger.warn("Transaction not found: {}", transactionId);
+            return false;
+        }
+
+        Company transactionBroker = transaction.getBrokerCompany();
+        Company transactionClient = transaction.getClientCompany();
+
+        return canViewTransaction(user, transactionId,
+                transactionBroker != null ? transactionBroker.getId() : null,
+                transactionClient != null ? transactionClient.getId() : null);
+    }
+
     // ==========================================
     // İŞLEM DURUM DEĞİŞTİRME YETKİSİ
     // ==========================================
@@ -220,6 +262,14 @@ public class TransactionAuthorizationService {
      * - CLIENT_USER: Asla değiştiremez
      */
     public boolean canChangeTransactionStatus(User user, Long transactionId) {
+        return canChangeTransactionStatus(user, transactionId, () -> transactionRepository.findById(transactionId).orElse(null));
+    }
+
+    public boolean canChangeTransactionStatus(User user, CustomsTransaction transaction) {
+        return canChangeTransactionStatus(user, transaction.getId(), () -> transaction);
+    }
+
+    private boolean canChangeTransactionStatus(User user, Long transactionId, Supplier<CustomsTransaction> loader) {
         // SUPER_ADMIN her zaman değiştirebilir
         if (user.isSuperAdmin()) {
             logAccessGranted(user, "CHANGE_STATUS", transactionId);
@@ -232,7 +282,7 @@ public class TransactionAuthorizationService {
             return false;
         }
 
-        CustomsTransaction transaction = transactionRepository.findById(transactionId).orElse(null);
+        CustomsTransaction transaction = loader.get();
         if (transaction == null) {
             logger.warn("Transaction not found: {}", transactionId);
             return false;
@@ -254,6 +304,35 @@ public class TransactionAuthorizationService {
         return false;
     }
 
+    /**
+     * Toplu durum değişikliğinde kullanıcının değiştirebileceği işlem kümesi.
+     * <p>
+     * KURALLAR:
+     * - SUPER_ADMIN: Tüm işlemler (veya brokerId ile daraltılmış)
+     * - BROKER_ADMIN / BROKER_USER: Sadece kendi broker firmasının işlemleri
+     * - CLIENT_USER: Durum değiştiremez (null)
+     * - Tek tek findById yapılmaz; kapsam toplu sorgunun WHERE koşuluna eklenir
+     */
+    public TransactionScope resolveStatusChangeScope(User user, Long requestedBrokerId) {
+        if (user.isSuperAdmin()) {
+            return requestedBrokerId != null
+                    ? TransactionScope.broker(requestedBrokerId)
+                    : TransactionScope.unrestricted();
+        }
+
+        if (user.isBrokerStaff()) {
+            Company userBrokerCompany = user.getBrokerCompany();
+
+            if (userBrokerCompany != null &&
+                    (requestedBrokerId == null || userBrokerCompany.getId().equals(requestedBrokerId))) {
+                return TransactionScope.broker(userBrokerCompany.getId());
+            }
+        }
+
+        logAccessDenied(user, "BULK_CHANGE_STATUS", requestedBrokerId);
+        return null;
+    }
+
     // ==========================================
     // TOPLU GÖRÜNTÜLEME YETKİLERİ
     // ==========================================
@@ -333,6 +412,44 @@ public class TransactionAuthorizationService {
         return false;
     }
 
+    // ==========================================
+    // LİSTELEME KAPSAMI
+    // ==========================================
+
+    /**
+     * Listeleme sorguları için kullanıcının işlem kapsamı
+     * <p>
+     * KURALLAR:
+     * - SUPER_ADMIN: Kısıtsız; brokerId verilirse o broker'a daraltılır
+     * - BROKER_ADMIN: Kendi broker firmasının işlemleri
+     * - BROKER_USER: Kendi broker firmasının işlemleri
+     * - CLIENT_USER: Sadece kendi müşteri firmasının işlemleri
+     * - Başka bir broker istenirse veya kapsam belirlenemezse null döner (erişim yok)
+     */
+    public TransactionScope resolveViewScope(User user, Long requestedBrokerId) {
+        if (user.isSuperAdmin()) {
+            return requestedBrokerId != null
+                    ? TransactionScope.broker(requestedBrokerId)
+                    : TransactionScope.unrestricted();
+        }
+
+        if (user.isBrokerStaff()) {
+            Company userBrokerCompany = user.getBrokerCompany();
+
+            if (userBrokerCompany != null &&
+                    (requestedBrokerId == null || userBrokerCompany.getId().equals(requestedBrokerId))) {
+                return TransactionScope.broker(userBrokerCompany.getId());
+            }
+        }
+
+        if (user.isClientUser() && requestedBrokerId == null && user.getCompany() != null) {
+            return TransactionScope.client(user.getCompany().getId());
+        }
+
+        logAccessDenied(user, "VIEW_TRANSACTIONS", requestedBrokerId);
+        return null;
+    }
+
     // ==========================================
     // CLIENT KULLANICI KONTROLÜ
     // ==========================================
@@ -0,0 +1,194 @@
+package com.gcodes.aacctracker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gcodes.aacctracker.model.CustomsTransaction;
+import com.gcodes.aacctracker.model.TransactionExcelColumn;
+import com.gcodes.aacctracker.model.TransactionStatus;
+import com.gcodes.aacctracker.repository.CustomsTransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * İşlem geçmişini CSV veya NDJSON olarak stream eden servis.
+ * <p>
+ * KURALLAR:
+ * - Satırlar repository stream'inden okunur, liste oluşturulmaz
+ * - Persistence context belirli aralıklarla temizlenir (heap sabit kalır)
+ * - Çıktı, TransactionExcelColumn'daki 16 Excel sütunudur
+ * - CSV'de formül karakteriyle başlayan metinlerin önüne ' eklenir (Excel'de formül olarak çalışmaz)
+ */
+@Service
+public class TransactionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExportService.class);
+
+    // Kaç satırda bir persistence context temizlenip çıktı flush edilir
+    private static final int CLEAR_INTERVAL = 500;
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    // Hücre başında formül başlatan karakterler (CSV/formül enjeksiyonu)
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    @Autowired
+    private CustomsTransactionRepository transactionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public enum ExportFormat {
+        CSV("text/csv; charset=UTF-8", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static ExportFormat from(String value) {
+            for (ExportFormat format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new RuntimeException("Unsupported export format: " + value);
+        }
+    }
+
+    /**
+     * Broker'ın işlemlerini verilen çıktıya yazar ve yazılan satır sayısını döner.
+     * Çıktı stream'i kapatılmaz, sadece flush edilir.
+     */
+    @Transactional(readOnly = true)
+    public long exportBrokerTransactions(Long brokerId, TransactionStatus status,
+                                         ExportFormat format, OutputStream out) throws IOException {
+        long startTime = System.currentTimeMillis();
+        long count = 0;
+
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+
+        if (format == ExportFormat.CSV) {
+            // Excel'in UTF-8 (Türkçe karakterler) tanıması için BOM
+            writer.write('\uFEFF');
+            writeCsvHeader(writer);
+        }
+
+        try (Stream<CustomsTransaction> rows = transactionRepository.streamByBrokerId(brokerId, status)) {
+            Iterator<CustomsTransaction> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                CustomsTransaction transaction = iterator.next();
+
+                if (format == ExportFormat.CSV) {
+                    writeCsvRow(writer, transaction);
+                } else {
+                    writeJsonLine(writer, transaction);
+                }
+
+                if (++count % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        }
+
+        writer.flush();
+        logger.info("Exported {} transactions for broker {} as {} in {} ms",
+                count, brokerId, format, System.currentTimeMillis() - startTime);
+
+        return count;
+    }
+
+    // ===== HELPER METODLARI =====
+
+    private void writeCsvHeader(Writer writer) throws IOException {
+        TransactionExcelColumn[] columns = TransactionExcelColumn.values();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(columns[i].getHeader()));
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeCsvRow(Writer writer, CustomsTransaction transaction) throws IOException {
+        TransactionExcelColumn[] columns = TransactionExcelColumn.values();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(formatCsvValue(columns[i].valueOf(transaction))));
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeJsonLine(Writer writer, CustomsTransaction transaction) throws IOException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (TransactionExcelColumn column : TransactionExcelColumn.values()) {
+            row.put(column.getFieldName(), column.valueOf(transaction));
+        }
+        writer.write(objectMapper.writeValueAsString(row));
+        writer.write('\n');
+    }
+
+    private String formatCsvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        if (value instanceof String text) {
+            return neutralizeFormula(text);
+        }
+        return value.toString();
+    }
+
+    // Excel'de formül olarak çalışmasın: =, +, -, @, tab veya CR ile başlayan metinlerin önüne ' eklenir
+    private String neutralizeFormula(String value) {
+        if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            return "'" + value;
+        }
+        return value;
+    }
+
+    private String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,30 @@
+package com.gcodes.aacctracker.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Veritabanı transaction'ı commit edildikten sonra çalışacak işler için yardımcı.
+ * <p>
+ * Bellek içi indeks/önbellek güncellemeleri, geri alınan (rollback) bir yazmayı
+ * yansıtmasın diye commit sonrasına ertelenir. Aktif transaction yoksa iş hemen çalışır.
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
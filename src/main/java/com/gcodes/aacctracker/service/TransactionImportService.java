@@ -0,0 +1,454 @@
+package com.gcodes.aacctracker.service;
+
+import com.gcodes.aacctracker.dto.TransactionImportResult;
+import com.gcodes.aacctracker.model.Company;
+import com.gcodes.aacctracker.model.CustomsTransaction;
+import com.gcodes.aacctracker.model.TransactionExcelColumn;
+import com.gcodes.aacctracker.model.TransactionStatus;
+import com.gcodes.aacctracker.model.User;
+import com.gcodes.aacctracker.repository.CompanyRepository;
+import com.gcodes.aacctracker.repository.CustomsTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Excel (XLSX) / CSV dosyalarından toplu işlem içe aktarma.
+ * <p>
+ * KURALLAR:
+ * - İlk dolu satır başlık satırıdır; sütunlar TransactionExcelColumn başlıkları veya alan adlarıyla eşleşir
+ * - Satırlar CHUNK_SIZE'lık parçalar halinde doğrulanır ve yazılır
+ * - Anlaşmalı müşteriler içe aktarma başında bir kez, mevcut fileNo'lar her parça için tek sorguyla yüklenir
+ * - Yazma JDBC batch insert ile yapılır; her parça kendi transaction'ında commit edilir
+ * - Hatalı satırlar atlanır ve satır numarasıyla raporlanır, geçerli satırlar yine de içe aktarılır
+ */
+@Service
+public class TransactionImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionImportService.class);
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final Locale TURKISH = Locale.forLanguageTag("tr");
+
+    // Excel şablonunda olmayan, opsiyonel müşteri firma sütunu
+    private static final Set<String> CLIENT_COLUMN_HEADERS =
+            Set.of("müşteri firma id", "client company id", "clientcompanyid");
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("d.M.yyyy"),
+            DateTimeFormatter.ofPattern("d/M/yyyy")
+    );
+
+    private static final String INSERT_SQL = "INSERT INTO customs_transactions (" +
+            "broker_company_id, client_company_id, created_by_user_id, " +
+            "file_no, recipient_name, customs_warehouse, gate, weight, tax, sender_name, " +
+            "warehouse_arrival_date, registration_date, declaration_number, line_closure_date, " +
+            "import_processing_time, withdrawal_date, description, total_processing_time, delay_reason, " +
+            "has_delay, status, created_at, updated_at, last_modified_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private AgreementIndex agreementIndex;
+
+    @Autowired
+    private CustomsTransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionSearchService searchService;
+
+    @Autowired
+    private FileNoFilter fileNoFilter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Dosyayı okuyup geçerli satırları broker adına içe aktarır.
+     *
+     * @param defaultClientId Satırda müşteri firma sütunu yoksa/boşsa kullanılacak müşteri
+     */
+    public TransactionImportResult importTransactions(MultipartFile file, Long brokerCompanyId,
+                                                      Long defaultClientId, User importedBy) {
+        long startTime = System.currentTimeMillis();
+
+        Company broker = companyRepository.findById(brokerCompanyId)
+                .orElseThrow(() -> new RuntimeException("Broker company not found"));
+
+        if (!broker.isBroker()) {
+            throw new RuntimeException("Broker company must be of type CUSTOMS_BROKER");
+        }
+
+        // ✅ Anlaşmalı müşteriler bellek içi indeksten
+        Set<Long> agreedClientIds = agreementIndex.getActiveClientIds(brokerCompanyId);
+
+        ImportBatch batch = new ImportBatch(brokerCompanyId, defaultClientId, agreedClientIds, importedBy);
+        String fileName = file.getOriginalFilename();
+
+        try {
+            if (TransactionSheetReader.isXlsx(fileName)) {
+                // POI'nin paket okuyucusu rastgele erişim ister; yükleme geçici dosyaya alınır
+                File tempFile = Files.createTempFile("transaction-import-", ".xlsx").toFile();
+                try {
+                    file.transferTo(tempFile);
+                    TransactionSheetReader.readXlsx(tempFile, batch::onRow);
+                } finally {
+                    Files.deleteIfExists(tempFile.toPath());
+                }
+            } else if (TransactionSheetReader.isCsv(fileName)) {
+                try (InputStream input = file.getInputStream()) {
+                    TransactionSheetReader.readCsv(input, batch::onRow);
+                }
+            } else {
+                throw new RuntimeException("Unsupported file type. Please upload an .xlsx or .csv file");
+            }
+
+            batch.flush();
+
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read import file: " + e.getMessage(), e);
+        }
+
+        TransactionImportResult result = batch.result;
+        result.setDurationMs(System.currentTimeMillis() - startTime);
+
+        logger.info("Transaction import finished for broker {} by {}: {} rows, {} imported, {} failed in {} ms",
+                brokerCompanyId, importedBy.getEmail(), result.getTotalRows(),
+                result.getImportedRows(), result.getFailedRows(), result.getDurationMs());
+
+        return result;
+    }
+
+    // ==========================================
+    // İÇE AKTARMA OTURUMU
+    // ==========================================
+
+    private static class ImportRow {
+        final int rowNumber;
+        final Long clientId;
+        final CustomsTransaction transaction;
+
+        ImportRow(int rowNumber, Long clientId, CustomsTransaction transaction) {
+            this.rowNumber = rowNumber;
+            this.clientId = clientId;
+            this.transaction = transaction;
+        }
+    }
+
+    /**
+     * Tek bir dosyanın içe aktarma durumu: başlık eşlemesi, dosya içi fileNo kümesi ve bekleyen parça.
+     */
+    private class ImportBatch {
+
+        private final Long brokerId;
+        private final Long defaultClientId;
+        private final Set<Long> agreedClientIds;
+        private final User importedBy;
+        private final TransactionImportResult result = new TransactionImportResult();
+        private final Set<String> seenFileNos = new HashSet<>();
+        private final List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        private Map<Integer, TransactionExcelColumn> columnsByIndex;
+        private Integer clientColumnIndex;
+
+        ImportBatch(Long brokerId, Long defaultClientId, Set<Long> agreedClientIds, User importedBy) {
+            this.brokerId = brokerId;
+            this.defaultClientId = defaultClientId;
+            this.agreedClientIds = agreedClientIds;
+            this.importedBy = importedBy;
+        }
+
+        void onRow(int rowNumber, List<String> cells) {
+            if (cells.stream().allMatch(String::isBlank)) {
+                return;
+            }
+
+            if (columnsByIndex == null) {
+                mapHeader(cells);
+                return;
+            }
+
+            result.setTotalRows(result.getTotalRows() + 1);
+
+            ImportRow row = parseRow(rowNumber, cells);
+            if (row != null) {
+                chunk.add(row);
+                if (chunk.size() >= CHUNK_SIZE) {
+                    flush();
+                }
+            }
+        }
+
+        private void mapHeader(List<String> headers) {
+            Map<String, TransactionExcelColumn> lookup = new HashMap<>();
+            for (TransactionExcelColumn column : TransactionExcelColumn.values()) {
+                lookup.put(normalizeHeader(column.getHeader()), column);
+                lookup.put(normalizeHeader(column.getFieldName()), column);
+            }
+
+            columnsByIndex = new HashMap<>();
+            for (int i = 0; i < headers.size(); i++) {
+                String header = normalizeHeader(headers.get(i));
+                TransactionExcelColumn column = lookup.get(header);
+                if (column != null) {
+                    columnsByIndex.put(i, column);
+                } else if (CLIENT_COLUMN_HEADERS.contains(header)) {
+                    clientColumnIndex = i;
+                }
+            }
+
+            if (!columnsByIndex.containsValue(TransactionExcelColumn.FILE_NO)) {
+                throw new RuntimeException("Header row must contain the '"
+                        + TransactionExcelColumn.FILE_NO.getHeader() + "' column");
+            }
+        }
+
+        private ImportRow parseRow(int rowNumber, List<String> cells) {
+            CustomsTransaction transaction = new CustomsTransaction();
+
+            for (Map.Entry<Integer, TransactionExcelColumn> entry : columnsByIndex.entrySet()) {
+                String raw = entry.getKey() < cells.size() ? cells.get(entry.getKey()).trim() : "";
+                if (raw.isEmpty()) {
+                    continue;
+                }
+                try {
+                    applyValue(transaction, entry.getValue(), raw);
+                } catch (RuntimeException e) {
+                    result.addError(rowNumber, transaction.getFileNo(),
+                            "Invalid value in column '" + entry.getValue().getHeader() + "': " + raw);
+                    return null;
+                }
+            }
+
+            String fileNo = transaction.getFileNo();
+            if (fileNo == null) {
+                result.addError(rowNumber, null, "File number is required");
+                return null;
+            }
+
+            if (!seenFileNos.add(fileNo)) {
+                result.addError(rowNumber, fileNo, "Duplicate fileNo within the file");
+                return null;
+            }
+
+            Long clientId = defaultClientId;
+            if (clientColumnIndex != null && clientColumnIndex < cells.size()
+                    && !cells.get(clientColumnIndex).isBlank()) {
+                try {
+                    clientId = Long.parseLong(cells.get(clientColumnIndex).trim());
+                } catch (NumberFormatException e) {
+                    result.addError(rowNumber, fileNo, "Invalid client company id: " + cells.get(clientColumnIndex));
+                    return null;
+                }
+            }
+
+            if (clientId == null) {
+                result.addError(rowNumber, fileNo, "Client company is required");
+                return null;
+            }
+
+            if (!agreedClientIds.contains(clientId)) {
+                result.addError(rowNumber, fileNo, "No active agreement exists between broker and client");
+                return null;
+            }
+
+            transaction.calculateProcessingTime();
+            return new ImportRow(rowNumber, clientId, transaction);
+        }
+
+        /**
+         * Bekleyen parçayı yazar: mevcut fileNo'ları tek IN sorgusuyla eler, kalanları batch insert eder.
+         */
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+
+            List<ImportRow> rows = new ArrayList<>(chunk);
+            chunk.clear();
+
+            // Sadece filtrenin "belki var" dediği numaralar DB'ye sorulur; unique index yine son savunma hattıdır
+            List<String> maybeExisting = rows.stream()
+                    .map(row -> row.transaction.getFileNo())
+                    .filter(fileNoFilter::mightContain)
+                    .toList();
+            Set<String> existing = maybeExisting.isEmpty()
+                    ? Set.of()
+                    : new HashSet<>(transactionRepository.findExistingFileNos(maybeExisting));
+
+            List<ImportRow> toInsert = new ArrayList<>(rows.size());
+            for (ImportRow row : rows) {
+                if (existing.contains(row.transaction.getFileNo())) {
+                    result.addError(row.rowNumber, row.transaction.getFileNo(),
+                            "Transaction with this fileNo already exists");
+                } else {
+                    toInsert.add(row);
+                }
+            }
+
+            if (toInsert.isEmpty()) {
+                return;
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<Object[]> batchArgs = toInsert.stream().map(row -> toInsertArgs(row, now)).toList();
+
+            List<ImportRow> inserted;
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(
+                        status -> jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs));
+                result.setImportedRows(result.getImportedRows() + toInsert.size());
+                inserted = toInsert;
+            } catch (DataIntegrityViolationException e) {
+                // Parça geri alındı; eşzamanlı eklenen bir fileNo ya da hatalı bir satır olabilir.
+                // Hangi satırın sorunlu olduğunu bulmak için parçayı satır satır yeniden dene.
+                logger.warn("Batch insert failed for broker {}, retrying chunk row by row: {}",
+                        brokerId, e.getMostSpecificCause().getMessage());
+                inserted = insertRowByRow(toInsert, now);
+            }
+
+            if (inserted.isEmpty()) {
+                return;
+            }
+
+            // Filtre ve indeks sadece gerçekten eklenen satırlarla güncellenir
+            inserted.forEach(row -> fileNoFilter.put(row.transaction.getFileNo()));
+
+            // JDBC ile yazılan satırlar JPA olaylarından geçmez; arama indeksine parça bazında eklenir
+            searchService.indexSummaries(transactionRepository.findSummariesByFileNos(
+                    inserted.stream().map(row -> row.transaction.getFileNo()).toList()));
+        }
+
+        /**
+         * Satırları tek tek ekler ve başarıyla eklenenleri döner.
+         */
+        private List<ImportRow> insertRowByRow(List<ImportRow> rows, LocalDateTime now) {
+            List<ImportRow> inserted = new ArrayList<>(rows.size());
+            for (ImportRow row : rows) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, toInsertArgs(row, now));
+                    result.setImportedRows(result.getImportedRows() + 1);
+                    inserted.add(row);
+                } catch (DuplicateKeyException e) {
+                    result.addError(row.rowNumber, row.transaction.getFileNo(),
+                            "Transaction with this fileNo already exists");
+                } catch (DataIntegrityViolationException e) {
+                    result.addError(row.rowNumber, row.transaction.getFileNo(),
+                            "Invalid data: " + e.getMostSpecificCause().getMessage());
+                }
+            }
+            return inserted;
+        }
+
+        private Object[] toInsertArgs(ImportRow row, LocalDateTime now) {
+            CustomsTransaction t = row.transaction;
+            return new Object[]{
+                    brokerId, row.clientId, importedBy.getId(),
+                    t.getFileNo(), t.getRecipientName(), t.getCustomsWarehouse(), t.getGate(),
+                    t.getWeight(), t.getTax(), t.getSenderName(),
+                    t.getWarehouseArrivalDate(), t.getRegistrationDate(), t.getDeclarationNumber(),
+                    t.getLineClosureDate(), t.getImportProcessingTime(), t.getWithdrawalDate(),
+                    t.getDescription(), t.getTotalProcessingTime(), t.getDelayReason(),
+                    t.hasDelay(), TransactionStatus.PENDING.name(), now, now, importedBy.getEmail()
+            };
+        }
+    }
+
+    // ==========================================
+    // HÜCRE DÖNÜŞÜMLERİ
+    // ==========================================
+
+    private static void applyValue(CustomsTransaction t, TransactionExcelColumn column, String raw) {
+        switch (column) {
+            case FILE_NO -> t.setFileNo(limit(raw, 100));
+            case RECIPIENT_NAME -> t.setRecipientName(limit(raw, 255));
+            case CUSTOMS_WAREHOUSE -> t.setCustomsWarehouse(limit(raw, 255));
+            case GATE -> t.setGate(limit(raw, 50));
+            case WEIGHT -> t.setWeight(parseDecimal(raw));
+            case TAX -> t.setTax(parseDecimal(raw));
+            case SENDER_NAME -> t.setSenderName(limit(raw, 255));
+            case WAREHOUSE_ARRIVAL_DATE -> t.setWarehouseArrivalDate(parseDate(raw));
+            case REGISTRATION_DATE -> t.setRegistrationDate(parseDate(raw));
+            case DECLARATION_NUMBER -> t.setDeclarationNumber(limit(raw, 100));
+            case LINE_CLOSURE_DATE -> t.setLineClosureDate(parseDate(raw));
+            case IMPORT_PROCESSING_TIME -> t.setImportProcessingTime(parseDecimal(raw).intValueExact());
+            case WITHDRAWAL_DATE -> t.setWithdrawalDate(parseDate(raw));
+            case DESCRIPTION -> t.setDescription(limit(raw, 500));
+            case TOTAL_PROCESSING_TIME -> t.setTotalProcessingTime(parseDecimal(raw).intValueExact());
+            case DELAY_REASON -> t.setDelayReason(limit(raw, 500));
+        }
+    }
+
+    // Kolon uzunluğunu aşan değer batch'i bozmasın, satır hatası olarak raporlansın
+    private static String limit(String value, int maxLength) {
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException("Value exceeds " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static LocalDate parseDate(String raw) {
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(raw, format);
+            } catch (DateTimeParseException ignored) {
+                // sıradaki biçimi dene
+            }
+        }
+        throw new IllegalArgumentException("Unrecognized date: " + raw);
+    }
+
+    /**
+     * Hem "1234.5", "1,234.5" hem de Türkçe "1.234,5" yazımlarını kabul eder.
+     */
+    private static BigDecimal parseDecimal(String raw) {
+        String value = raw.replace(" ", "");
+        int lastComma = value.lastIndexOf(',');
+        int lastDot = value.lastIndexOf('.');
+
+        if (lastComma > lastDot) {
+            value = value.replace(".", "").replace(',', '.');
+        } else if (lastComma >= 0) {
+            value = value.replace(",", "");
+        }
+
+        return new BigDecimal(value);
+    }
+
+    // "ID" / "ıd" gibi dil farklılıkları eşleşmeyi bozmasın diye noktasız ı da i'ye indirgenir
+    private static String normalizeHeader(String header) {
+        return header == null ? "" : header.trim().toLowerCase(TURKISH).replace('ı', 'i');
+    }
+}
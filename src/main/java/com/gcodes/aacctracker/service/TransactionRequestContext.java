@@ -0,0 +1,120 @@
+package com.gcodes.aacctracker.service;
+
+import com.gcodes.aacctracker.model.CustomsTransaction;
+import com.gcodes.aacctracker.model.User;
+import com.gcodes.aacctracker.repository.CustomsTransactionRepository;
+import com.gcodes.aacctracker.repository.CustomsTransactionRepository.TransactionStamp;
+import com.gcodes.aacctracker.security.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+/**
+ * İşlem endpoint'leri için istek kapsamlı çözümleme katmanı.
+ * <p>
+ * KURALLAR:
+ * - Mevcut kullanıcı JWT filtresinin yüklediği principal'dan alınır (email ile tekrar sorgulanmaz)
+ * - Hedef işlem broker/client firmalarıyla birlikte istek başına bir kez yüklenir
+ * - Yetki kararları istek boyunca (aksiyon + işlem id) anahtarıyla saklanır
+ * - Bean istek kapsamlıdır; istekler arasında hiçbir şey paylaşılmaz
+ */
+@Component
+@RequestScope
+public class TransactionRequestContext {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CustomsTransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionAuthorizationService authService;
+
+    private User currentUser;
+    private final Map<Long, Optional<CustomsTransaction>> transactions = new HashMap<>();
+    private final Map<String, Boolean> decisions = new HashMap<>();
+
+    // ==========================================
+    // KULLANICI
+    // ==========================================
+
+    public User currentUser() {
+        if (currentUser == null) {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+            if (auth != null && auth.getPrincipal() instanceof AuthenticatedUser principal) {
+                currentUser = principal.getUser();
+            } else {
+                // Principal başka bir kaynaktan geldiyse (ör. testler) eski yola düş
+                currentUser = userService.findByEmail(auth != null ? auth.getName() : null)
+                        .orElseThrow(() -> new RuntimeException("User not found"));
+            }
+        }
+        return currentUser;
+    }
+
+    // ==========================================
+    // İŞLEM
+    // ==========================================
+
+    public Optional<CustomsTransaction> findTransaction(Long transactionId) {
+        return transactions.computeIfAbsent(transactionId, transactionRepository::findByIdWithDetails);
+    }
+
+    public CustomsTransaction getTransaction(Long transactionId) {
+        return findTransaction(transactionId)
+                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+    }
+
+    /**
+     * Koşullu GET için işlemin son güncellenme zamanı. Sadece firma id'leri ve updatedAt okunur;
+     * işlem yoksa veya kullanıcının görme yetkisi yoksa boş döner.
+     */
+    public Optional<LocalDateTime> findViewableUpdatedAt(Long transactionId) {
+        return transactionRepository.findStampById(transactionId)
+                .filter(stamp -> authService.canViewTransaction(currentUser(), transactionId,
+                        stamp.getBrokerCompanyId(), stamp.getClientCompanyId()))
+                .map(TransactionStamp::getUpdatedAt);
+    }
+
+    // ==========================================
+    // YETKİ KARARLARI
+    // ==========================================
+
+    public boolean canViewTransaction(Long transactionId) {
+        return decide("VIEW", transactionId, () -> findTransaction(transactionId)
+                .map(t -> authService.canViewTransaction(currentUser(), t))
+                .orElse(false));
+    }
+
+    public boolean canUpdateTransaction(Long transactionId) {
+        return decide("UPDATE", transactionId, () -> findTransaction(transactionId)
+                .map(t -> authService.canUpdateTransaction(currentUser(), t))
+                .orElse(false));
+    }
+
+    public boolean canChangeTransactionStatus(Long transactionId) {
+        return decide("CHANGE_STATUS", transactionId, () -> findTransaction(transactionId)
+                .map(t -> authService.canChangeTransactionStatus(currentUser(), t))
+                .orElse(false));
+    }
+
+    private boolean decide(String action, Long transactionId, BooleanSupplier decision) {
+        String key = action + ":" + transactionId;
+        Boolean cached = decisions.get(key);
+        if (cached == null) {
+            cached = decision.getAsBoolean();
+            decisions.put(key, cached);
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,43 @@
+package com.gcodes.aacctracker.service;
+
+/**
+ * Listeleme sorgularında kullanıcının görebileceği işlem kümesi.
+ * <p>
+ * Yetki kuralları sonuç üzerinde sonradan filtrelenmez; bu kapsam doğrudan
+ * sorgunun WHERE koşuluna (broker_company_id / client_company_id) eklenir.
+ * İki alan da null ise kapsam kısıtsızdır (SUPER_ADMIN).
+ */
+public final class TransactionScope {
+
+    private final Long brokerCompanyId;
+    private final Long clientCompanyId;
+
+    private TransactionScope(Long brokerCompanyId, Long clientCompanyId) {
+        this.brokerCompanyId = brokerCompanyId;
+        this.clientCompanyId = clientCompanyId;
+    }
+
+    public static TransactionScope unrestricted() {
+        return new TransactionScope(null, null);
+    }
+
+    public static TransactionScope broker(Long brokerCompanyId) {
+        return new TransactionScope(brokerCompanyId, null);
+    }
+
+    public static TransactionScope client(Long clientCompanyId) {
+        return new TransactionScope(null, clientCompanyId);
+    }
+
+    public Long getBrokerCompanyId() {
+        return brokerCompanyId;
+    }
+
+    public Long getClientCompanyId() {
+        return clientCompanyId;
+    }
+
+    public boolean isUnrestricted() {
+        return brokerCompanyId == null && clientCompanyId == null;
+    }
+}
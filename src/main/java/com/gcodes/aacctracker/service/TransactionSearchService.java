@@ -0,0 +1,467 @@
+package com.gcodes.aacctracker.service;
+
+import com.gcodes.aacctracker.dto.TransactionSummaryResponse;
+import com.gcodes.aacctracker.model.CustomsTransaction;
+import com.gcodes.aacctracker.model.TransactionStatus;
+import com.gcodes.aacctracker.repository.CustomsTransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.stream.Stream;
+
+/**
+ * İşlemler için gömülü (Lucene, yerel disk) tam metin arama indeksi.
+ * <p>
+ * KURALLAR:
+ * - Aranan alanlar: fileNo, declarationNumber, recipientName, senderName, customsWarehouse
+ * - Her doküman broker/client id taşır; sorgular bu alanlarla filtrelenir (broker bazlı bölümleme)
+ * - İndeks uygulama açılışında veritabanından arka planda yeniden kurulur
+ * - Oluşturma/güncelleme sonrası doküman commit sonrası güncellenir (rollback olan yazma indekse girmez)
+ * - Sonuçlar indeksteki saklı alanlardan döner; arama veritabanına gitmez
+ */
+@Service
+public class TransactionSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionSearchService.class);
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    // Bu uzunluktan kısa terimlerde fuzzy eşleşme çok fazla gürültü üretir
+    private static final int FUZZY_MIN_LENGTH = 4;
+
+    private static final String F_ID = "id";
+    private static final String F_BROKER_ID = "brokerId";
+    private static final String F_CLIENT_ID = "clientId";
+    private static final String F_FILE_NO = "fileNo";
+    private static final String F_DECLARATION_NUMBER = "declarationNumber";
+    private static final String F_RECIPIENT_NAME = "recipientName";
+    private static final String F_SENDER_NAME = "senderName";
+    private static final String F_CUSTOMS_WAREHOUSE = "customsWarehouse";
+    // Dosya/beyanname numarasının bütün halinde önek araması için (ör. "2024/0001")
+    private static final String F_FILE_NO_KEYWORD = "fileNoKeyword";
+    private static final String F_DECLARATION_KEYWORD = "declarationNumberKeyword";
+
+    private static final String[] TEXT_FIELDS = {
+            F_FILE_NO, F_DECLARATION_NUMBER, F_RECIPIENT_NAME, F_SENDER_NAME, F_CUSTOMS_WAREHOUSE
+    };
+
+    @Value("${search.index.path:./data/search-index}")
+    private String indexPath;
+
+    @Autowired
+    private CustomsTransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private FSDirectory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    // Yeniden kurulum sürerken gelen güncellemeler sona saklanır (eski snapshot onları ezmesin).
+    // rebuilding bayrağı ve bekleyen kuyruk indexLock altında okunur/değiştirilir: kuyruk boşaltılmadan
+    // bayrak kapanmaz, böylece doğrudan bir yazma kuyruktaki eski dokümanın önüne geçemez.
+    private final Object indexLock = new Object();
+    private boolean rebuilding;
+    private final Queue<Document> pendingDuringRebuild = new ArrayDeque<>();
+
+    @PostConstruct
+    public void open() {
+        try {
+            Path path = Path.of(indexPath);
+            Files.createDirectories(path);
+            directory = FSDirectory.open(path);
+            writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+            searcherManager = new SearcherManager(writer, null);
+            logger.info("Transaction search index opened at {}", path.toAbsolutePath());
+        } catch (IOException e) {
+            // Arama yardımcı bir özellik; indeks açılamazsa uygulama yine de çalışır
+            logger.error("Transaction search index could not be opened at {}: {}", indexPath, e.getMessage(), e);
+            writer = null;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            searcherManager.close();
+            writer.commit();
+            writer.close();
+            directory.close();
+        } catch (IOException e) {
+            logger.warn("Error closing transaction search index: {}", e.getMessage());
+        }
+    }
+
+    // ==========================================
+    // YENİDEN KURULUM
+    // ==========================================
+
+    /**
+     * Açılışta indeksi veritabanından yeniden kurar. Uygulama açılışını bekletmemek için arka planda çalışır.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (writer == null) {
+            return;
+        }
+        Thread thread = new Thread(this::rebuild, "transaction-search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void rebuild() {
+        long startTime = System.currentTimeMillis();
+        synchronized (indexLock) {
+            rebuilding = true;
+        }
+
+        try {
+            writer.deleteAll();
+
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(true);
+
+            Long count = template.execute(status -> {
+                long indexed = 0;
+                try (Stream<TransactionSummaryResponse> rows = transactionRepository.streamAllSummaries()) {
+                    for (TransactionSummaryResponse row : (Iterable<TransactionSummaryResponse>) rows::iterator) {
+                        writer.addDocument(toDocument(row));
+                        indexed++;
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to write search index: " + e.getMessage(), e);
+                }
+                return indexed;
+            });
+
+            finishRebuild();
+
+            writer.commit();
+            searcherManager.maybeRefresh();
+
+            logger.info("Transaction search index rebuilt: {} documents in {} ms",
+                    count, System.currentTimeMillis() - startTime);
+
+        } catch (Exception e) {
+            logger.error("Transaction search index rebuild failed: {}", e.getMessage(), e);
+            try {
+                finishRebuild();
+                searcherManager.maybeRefresh();
+            } catch (IOException ex) {
+                logger.error("Failed to apply pending search index updates: {}", ex.getMessage());
+            }
+        }
+    }
+
+    // Bekleyen güncellemeler bayrak hâlâ açıkken uygulanır; bayrak en son kapanır
+    private void finishRebuild() throws IOException {
+        synchronized (indexLock) {
+            try {
+                Document document;
+                while ((document = pendingDuringRebuild.poll()) != null) {
+                    writer.updateDocument(new Term(F_ID, document.get(F_ID)), document);
+                }
+            } finally {
+                pendingDuringRebuild.clear();
+                rebuilding = false;
+            }
+        }
+    }
+
+    // ==========================================
+    // ARTIMLI GÜNCELLEME
+    // ==========================================
+
+    /**
+     * İşlemi commit sonrası indekse yazar. Doküman, lazy alanlara erişilebilsin diye
+     * hemen (transaction içinde) oluşturulur.
+     */
+    public void indexAfterCommit(CustomsTransaction transaction) {
+        if (writer == null) {
+            return;
+        }
+        Document document = toDocument(transaction);
+        TransactionHooks.afterCommit(() -> write(List.of(document)));
+    }
+
+    /**
+     * Toplu UPDATE ile değişen işlemleri commit sonrası veritabanından okuyup yeniden indeksler.
+     */
+    public void indexByIdsAfterCommit(Collection<Long> ids) {
+        if (writer == null || ids.isEmpty()) {
+            return;
+        }
+        List<Long> snapshot = List.copyOf(ids);
+        TransactionHooks.afterCommit(() -> indexSummaries(transactionRepository.findSummariesByIds(snapshot)));
+    }
+
+    /**
+     * JPA dışından (ör. JDBC batch) yazılmış işlemleri indeksler.
+     */
+    public void indexSummaries(Collection<TransactionSummaryResponse> rows) {
+        if (writer == null || rows.isEmpty()) {
+            return;
+        }
+        List<Document> documents = new ArrayList<>(rows.size());
+        for (TransactionSummaryResponse row : rows) {
+            documents.add(toDocument(row));
+        }
+        write(documents);
+    }
+
+    /**
+     * Dokümanları yazar ve arama görünümünü parti başına bir kez yeniler
+     * (doküman başına NRT yenileme küçük segmentler üretir).
+     */
+    private void write(List<Document> documents) {
+        synchronized (indexLock) {
+            if (rebuilding) {
+                pendingDuringRebuild.addAll(documents);
+                return;
+            }
+            for (Document document : documents) {
+                try {
+                    writer.updateDocument(new Term(F_ID, document.get(F_ID)), document);
+                } catch (IOException e) {
+                    logger.error("Failed to index transaction {}: {}", document.get(F_ID), e.getMessage());
+                }
+            }
+        }
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            logger.error("Failed to refresh transaction search index: {}", e.getMessage());
+        }
+    }
+
+    // ==========================================
+    // ARAMA
+    // ==========================================
+
+    /**
+     * Önek ve yazım hatası toleranslı (fuzzy) arama.
+     *
+     * @param scope    Kullanıcının işlem kapsamı (broker / client filtresi)
+     * @param clientId Broker kapsamında opsiyonel müşteri filtresi
+     */
+    public List<TransactionSummaryResponse> search(String text, TransactionScope scope, Long clientId, Integer limit) {
+        if (writer == null) {
+            throw new RuntimeException("Search index is not available");
+        }
+
+        if (text == null || text.isBlank()) {
+            throw new RuntimeException("Search query is required");
+        }
+
+        int maxHits = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        Query query = buildQuery(text, scope, clientId);
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query, maxHits);
+                StoredFields storedFields = searcher.storedFields();
+
+                List<TransactionSummaryResponse> results = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    results.add(toSummary(storedFields.document(scoreDoc.doc)));
+                }
+                return results;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Search failed: " + e.getMessage(), e);
+        }
+    }
+
+    private Query buildQuery(String text, TransactionScope scope, Long clientId) {
+        // Her terim, aranan alanlardan en az birinde (önek veya fuzzy) eşleşmeli
+        BooleanQuery.Builder terms = new BooleanQuery.Builder();
+        for (String token : analyze(text)) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            for (String field : TEXT_FIELDS) {
+                anyField.add(new PrefixQuery(new Term(field, token)), BooleanClause.Occur.SHOULD);
+                if (token.length() >= FUZZY_MIN_LENGTH) {
+                    anyField.add(new BoostQuery(new FuzzyQuery(new Term(field, token), 1), 0.5f),
+                            BooleanClause.Occur.SHOULD);
+                }
+            }
+            terms.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+
+        String keyword = text.trim().toLowerCase(Locale.ROOT);
+
+        BooleanQuery.Builder match = new BooleanQuery.Builder()
+                .add(terms.build(), BooleanClause.Occur.SHOULD)
+                .add(new BoostQuery(new PrefixQuery(new Term(F_FILE_NO_KEYWORD, keyword)), 2f), BooleanClause.Occur.SHOULD)
+                .add(new BoostQuery(new PrefixQuery(new Term(F_DECLARATION_KEYWORD, keyword)), 2f), BooleanClause.Occur.SHOULD)
+                .setMinimumNumberShouldMatch(1);
+
+        BooleanQuery.Builder root = new BooleanQuery.Builder()
+                .add(match.build(), BooleanClause.Occur.MUST);
+
+        if (scope.getBrokerCompanyId() != null) {
+            root.add(new TermQuery(new Term(F_BROKER_ID, scope.getBrokerCompanyId().toString())),
+                    BooleanClause.Occur.FILTER);
+        }
+
+        Long effectiveClientId = scope.getClientCompanyId() != null ? scope.getClientCompanyId() : clientId;
+        if (effectiveClientId != null) {
+            root.add(new TermQuery(new Term(F_CLIENT_ID, effectiveClientId.toString())),
+                    BooleanClause.Occur.FILTER);
+        }
+
+        return root.build();
+    }
+
+    // Sorgu metni, indekslemeyle aynı analyzer'dan geçirilir (küçük harf, tokenizasyon)
+    private List<String> analyze(String text) {
+        List<String> tokens = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(F_RECIPIENT_NAME, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to analyze search query", e);
+        }
+        return tokens;
+    }
+
+    // ==========================================
+    // DOKÜMAN DÖNÜŞÜMLERİ
+    // ==========================================
+
+    private Document toDocument(CustomsTransaction t) {
+        return toDocument(new TransactionSummaryResponse(
+                t.getId(), t.getFileNo(), t.getRecipientName(), t.getSenderName(), t.getCustomsWarehouse(),
+                t.getGate(), t.getDeclarationNumber(), t.getRegistrationDate(), t.getWithdrawalDate(),
+                t.getTotalProcessingTime(), t.getDelayReason(), t.getStatus(), t.getCreatedAt(), t.getUpdatedAt(),
+                t.getBrokerCompany().getId(), t.getBrokerCompany().getName(),
+                t.getClientCompany().getId(), t.getClientCompany().getName()));
+    }
+
+    private Document toDocument(TransactionSummaryResponse row) {
+        Document document = new Document();
+        document.add(new StringField(F_ID, row.getId().toString(), Field.Store.YES));
+        document.add(new StringField(F_BROKER_ID, row.getBrokerCompanyId().toString(), Field.Store.YES));
+        document.add(new StringField(F_CLIENT_ID, row.getClientCompanyId().toString(), Field.Store.YES));
+
+        addText(document, F_FILE_NO, row.getFileNo());
+        addText(document, F_DECLARATION_NUMBER, row.getDeclarationNumber());
+        addText(document, F_RECIPIENT_NAME, row.getRecipientName());
+        addText(document, F_SENDER_NAME, row.getSenderName());
+        addText(document, F_CUSTOMS_WAREHOUSE, row.getCustomsWarehouse());
+
+        if (row.getFileNo() != null) {
+            document.add(new StringField(F_FILE_NO_KEYWORD, row.getFileNo().toLowerCase(Locale.ROOT), Field.Store.NO));
+        }
+        if (row.getDeclarationNumber() != null) {
+            document.add(new StringField(F_DECLARATION_KEYWORD,
+                    row.getDeclarationNumber().toLowerCase(Locale.ROOT), Field.Store.NO));
+        }
+
+        // Sadece sonuç gösterimi için saklanan alanlar
+        addStored(document, "gate", row.getGate());
+        addStored(document, "registrationDate", row.getRegistrationDate());
+        addStored(document, "withdrawalDate", row.getWithdrawalDate());
+        addStored(document, "totalProcessingTime", row.getTotalProcessingTime());
+        addStored(document, "delayReason", row.getDelayReason());
+        addStored(document, "status", row.getStatus());
+        addStored(document, "createdAt", row.getCreatedAt());
+        addStored(document, "updatedAt", row.getUpdatedAt());
+        addStored(document, "brokerCompanyName", row.getBrokerCompanyName());
+        addStored(document, "clientCompanyName", row.getClientCompanyName());
+        return document;
+    }
+
+    private TransactionSummaryResponse toSummary(Document d) {
+        return new TransactionSummaryResponse(
+                Long.valueOf(d.get(F_ID)),
+                d.get(F_FILE_NO),
+                d.get(F_RECIPIENT_NAME),
+                d.get(F_SENDER_NAME),
+                d.get(F_CUSTOMS_WAREHOUSE),
+                d.get("gate"),
+                d.get(F_DECLARATION_NUMBER),
+                d.get("registrationDate") != null ? LocalDate.parse(d.get("registrationDate")) : null,
+                d.get("withdrawalDate") != null ? LocalDate.parse(d.get("withdrawalDate")) : null,
+                d.get("totalProcessingTime") != null ? Integer.valueOf(d.get("totalProcessingTime")) : null,
+                d.get("delayReason"),
+                d.get("status") != null ? TransactionStatus.valueOf(d.get("status")) : null,
+                d.get("createdAt") != null ? LocalDateTime.parse(d.get("createdAt")) : null,
+                d.get("updatedAt") != null ? LocalDateTime.parse(d.get("updatedAt")) : null,
+                Long.valueOf(d.get(F_BROKER_ID)),
+                d.get("brokerCompanyName"),
+                Long.valueOf(d.get(F_CLIENT_ID)),
+                d.get("clientCompanyName"));
+    }
+
+    private void addText(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new TextField(field, value, Field.Store.YES));
+        }
+    }
+
+    private void addStored(Document document, String field, Object value) {
+        if (value != null) {
+            document.add(new StoredField(field, value.toString()));
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.gcodes.aacctracker.service;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Toplu içe aktarma için satır satır okuyucu (XLSX ve CSV).
+ * <p>
+ * KURALLAR:
+ * - Dosya hiçbir zaman tamamen belleğe alınmaz; her satır okunduğu anda RowHandler'a verilir
+ * - XLSX, POI'nin SAX tabanlı event API'si ile okunur (workbook modeli oluşturulmaz)
+ * - Tarih hücreleri ISO (yyyy-MM-dd), sayı hücreleri düz ondalık metin olarak verilir
+ */
+public final class TransactionSheetReader {
+
+    private TransactionSheetReader() {
+    }
+
+    @FunctionalInterface
+    public interface RowHandler {
+        /**
+         * @param rowNumber Dosyadaki 1 tabanlı satır numarası (hata raporu için)
+         * @param cells     Sütun sırasına göre hücre değerleri (boş hücreler "")
+         */
+        void onRow(int rowNumber, List<String> cells);
+    }
+
+    // ==========================================
+    // XLSX
+    // ==========================================
+
+    /**
+     * Çalışma kitabının ilk sayfasını okur.
+     */
+    public static void readXlsx(File file, RowHandler handler) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader reader = new XSSFReader(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new RuntimeException("Workbook has no sheets");
+            }
+
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        styles, strings, new SheetRowCollector(handler), new PlainDataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        }
+    }
+
+    /**
+     * SAX olaylarını satır listesine çevirir; atlanan (boş) hücreleri "" ile doldurur.
+     */
+    private static class SheetRowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final RowHandler handler;
+        private final List<String> cells = new ArrayList<>();
+        private int nextColumn;
+
+        SheetRowCollector(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+            nextColumn = 0;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            handler.onRow(rowNum + 1, new ArrayList<>(cells));
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            cells.add(formattedValue != null ? formattedValue : "");
+            nextColumn = column + 1;
+        }
+    }
+
+    /**
+     * Hücreleri yerel ayara bağlı biçimle değil, ayrıştırılabilir düz metinle verir:
+     * tarih → yyyy-MM-dd, sayı → 1234.5
+     */
+    private static class PlainDataFormatter extends DataFormatter {
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value).toLocalDate().toString();
+            }
+            return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+        }
+    }
+
+    // ==========================================
+    // CSV
+    // ==========================================
+
+    /**
+     * RFC 4180 CSV okur (tırnaklı alanlar, alan içi satır sonları).
+     * Ayraç ilk satırdan belirlenir: Türkçe Excel ';' kullanır, diğerleri ','.
+     */
+    public static void readCsv(InputStream input, RowHandler handler) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+
+        char delimiter = detectDelimiter(reader);
+
+        List<String> cells = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        boolean rowHasContent = false;
+        int rowNumber = 1;
+        int ch;
+
+        while ((ch = reader.read()) != -1) {
+            char c = (char) ch;
+
+            if (inQuotes) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        inQuotes = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+                continue;
+            }
+
+            if (c == '"') {
+                inQuotes = true;
+                rowHasContent = true;
+            } else if (c == delimiter) {
+                cells.add(field.toString());
+                field.setLength(0);
+                rowHasContent = true;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                if (rowHasContent || field.length() > 0) {
+                    cells.add(field.toString());
+                    handler.onRow(rowNumber, new ArrayList<>(cells));
+                }
+                cells.clear();
+                field.setLength(0);
+                rowHasContent = false;
+                rowNumber++;
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (rowHasContent || field.length() > 0) {
+            cells.add(field.toString());
+            handler.onRow(rowNumber, cells);
+        }
+    }
+
+    private static char detectDelimiter(BufferedReader reader) throws IOException {
+        reader.mark(64 * 1024);
+        String firstLine = reader.readLine();
+        reader.reset();
+
+        if (firstLine == null) {
+            return ',';
+        }
+
+        long semicolons = firstLine.chars().filter(c -> c == ';').count();
+        long commas = firstLine.chars().filter(c -> c == ',').count();
+        return semicolons > commas ? ';' : ',';
+    }
+
+    // ✅ Dosya türü uzantıdan belirlenir
+    public static boolean isXlsx(String fileName) {
+        return fileName != null && fileName.toLowerCase().endsWith(".xlsx");
+    }
+
+    public static boolean isCsv(String fileName) {
+        return fileName != null && fileName.toLowerCase().endsWith(".csv");
+    }
+}
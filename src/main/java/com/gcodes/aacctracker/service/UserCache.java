@@ -0,0 +1,142 @@
+package com.gcodes.aacctracker.service;
+
+import com.gcodes.aacctracker.repository.UserRepository;
+import com.gcodes.aacctracker.security.UserSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Kullanıcı kayıtları için bellek içi önbellek (id ve email ile).
+ * <p>
+ * KURALLAR:
+ * - Değerler değişmez {@link UserSnapshot}'lardır; çağıranlar her seferinde yeni bir kopya üretir
+ * - Bulunamayan kullanıcılar önbelleğe alınmaz
+ * - Kullanıcıyı değiştiren her yazma {@link #invalidateAfterCommit(Long)} çağırmalıdır;
+ *   kayıt commit sonrasında düşürülür ve varsa diğer instance'lara yayınlanır
+ * - Kayıtlar sadece usersById'nin hesaplama (compute) yolunda yüklenir; invalidation aynı anahtardaki
+ *   yüklemenin bitmesini bekler, commit öncesi okunmuş bir kopya invalidation'dan sonra geri yazılamaz
+ * - TTL, kaçırılan bir invalidation'ın üst sınırıdır
+ * - İsabet/ıskalama/tahliye metrikleri "cache" ön ekiyle Micrometer'a kaydedilir (cache=users.byId, users.byEmail)
+ */
+@Component
+public class UserCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCache.class);
+
+    @Value("${users.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${users.cache.ttl:10m}")
+    private Duration ttl;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private List<UserCacheInvalidationPublisher> publishers = List.of();
+
+    private Cache<Long, UserSnapshot> usersById;
+    private Cache<String, Long> idsByEmail;
+
+    @PostConstruct
+    public void init() {
+        usersById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        idsByEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByEmail, "users.byEmail");
+    }
+
+    public Optional<UserSnapshot> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+
+        // Aynı anahtar için eşzamanlı ıskalamalarda sorgu bir kez çalışır
+        UserSnapshot snapshot = usersById.get(id, key -> userRepository.findByIdWithCompanyDetails(key)
+                .map(UserSnapshot::of)
+                .orElse(null));
+
+        if (snapshot != null) {
+            idsByEmail.put(snapshot.getEmail(), snapshot.getId());
+        }
+        return Optional.ofNullable(snapshot);
+    }
+
+    public Optional<UserSnapshot> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+
+        Long cachedId = idsByEmail.getIfPresent(email);
+        if (cachedId != null) {
+            Optional<UserSnapshot> cached = findById(cachedId).filter(snapshot -> email.equals(snapshot.getEmail()));
+            if (cached.isPresent()) {
+                return cached;
+            }
+            // Email değişmiş: eşleme eskidir
+            idsByEmail.invalidate(email);
+        }
+
+        // Kayıt, findById ile aynı compute yolundan yüklenir (eşzamanlı invalidation ile sıralanır)
+        return userRepository.findIdByEmail(email)
+                .flatMap(this::findById)
+                .filter(snapshot -> email.equals(snapshot.getEmail()));
+    }
+
+    /**
+     * Kullanıcının kaydını, çevreleyen transaction commit edildikten sonra düşürür
+     * ve kayıtlı yayıncılar üzerinden diğer instance'lara bildirir.
+     */
+    public void invalidateAfterCommit(Long userId) {
+        if (userId == null) {
+            return;
+        }
+
+        TransactionHooks.afterCommit(() -> {
+            evictLocal(userId);
+
+            for (UserCacheInvalidationPublisher publisher : publishers) {
+                try {
+                    publisher.publish(userId);
+                } catch (Exception e) {
+                    logger.warn("User cache invalidation could not be published for user {}: {}",
+                            userId, e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Sadece bu instance'taki kaydı düşürür. Diğer instance'lardan gelen invalidation mesajları için.
+     */
+    public void evictLocal(Long userId) {
+        UserSnapshot removed = usersById.asMap().remove(userId);
+        if (removed != null) {
+            idsByEmail.invalidate(removed.getEmail());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.gcodes.aacctracker.service;
+
+/**
+ * Kullanıcı önbelleği invalidation'larını diğer uygulama instance'larına iletmek için genişleme noktası.
+ * <p>
+ * KURALLAR:
+ * - Varsayılan olarak hiçbir implementasyon yoktur (tek instance); önbellek TTL'i üst sınırdır
+ * - Implementasyon (ör. Redis pub/sub, mesaj kuyruğu) commit sonrasında, değişen kullanıcı id'si ile çağrılır
+ * - Mesajı alan instance {@link UserCache#evictLocal(Long)} çağırmalıdır (tekrar yayınlamamalıdır)
+ * - Hata fırlatmamalıdır; yayın başarısızlığı yazma işlemini etkilememelidir
+ */
+public interface UserCacheInvalidationPublisher {
+
+    void publish(Long userId);
+}
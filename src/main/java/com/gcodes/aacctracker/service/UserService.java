@@ -2,20 +2,20 @@ package com.gcodes.aacctracker.service;
 
 import com.gcodes.aacctracker.dto.UserUpdateRequest;
 import com.gcodes.aacctracker.exception.LimitExceededException;
+import com.gcodes.aacctracker.exception.PasswordHashingBusyException;
 import com.gcodes.aacctracker.model.*;
 import com.gcodes.aacctracker.repository.CompanyRepository;
 import com.gcodes.aacctracker.repository.UserRepository;
 import com.gcodes.aacctracker.repository.UsageTrackingRepository;
+import com.gcodes.aacctracker.security.AuthenticatedUser;
+import com.gcodes.aacctracker.security.PasswordHashingService;
+import com.gcodes.aacctracker.security.UserSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -23,6 +23,7 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Isolation;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -45,8 +46,13 @@ public class UserService implements UserDetailsService {
     private UsageTrackingRepository usageTrackingRepository;
 
     @Autowired
-    @Lazy
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private CompanyHierarchyService companyHierarchyService;
 
     // ==========================================
     // KULLANICI OLUŞTURMA VE GÜNCELLEME
@@ -113,6 +119,7 @@ public class UserService implements UserDetailsService {
 
             // ✅ Kullanıcıyı kaydet
             User savedUser = userRepository.save(user);
+            userCache.invalidateAfterCommit(savedUser.getId());
 
             // ✅ UsageTracking'i güncelle (aynı transaction içinde)
             if (savedUser.isBrokerStaff() && savedUser.getCompany() != null) {
@@ -144,6 +151,8 @@ public class UserService implements UserDetailsService {
         User userToUpdate = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
 
+        boolean revokeTokens = false;
+
         try {
             // Email güncellenecekse uniqueness kontrol et
             if (StringUtils.hasText(request.getEmail()) &&
@@ -153,6 +162,7 @@ public class UserService implements UserDetailsService {
                     throw new RuntimeException("Email already exists: " + request.getEmail());
                 }
                 userToUpdate.setEmail(request.getEmail());
+                revokeTokens = true;
             }
 
             // Username güncellenecekse uniqueness kontrol et
@@ -167,7 +177,8 @@ public class UserService implements UserDetailsService {
 
             // Şifre güncellenecekse encode et
             if (StringUtils.hasText(request.getPassword())) {
-                userToUpdate.setPassword(passwordEncoder.encode(request.getPassword()));
+                userToUpdate.setPassword(passwordHashingService.encode(request.getPassword()));
+                revokeTokens = true;
                 logger.info("Password updated for user: {}", userToUpdate.getEmail());
             }
 
@@ -183,6 +194,7 @@ public class UserService implements UserDetailsService {
                 // Kullanıcı devre dışı bırakılıyorsa
                 if (wasActive && !willBeActive) {
                     userToUpdate.setIsActive(false);
+                    revokeTokens = true;
                     updateUsageTrackingAfterUserRemove(userToUpdate);
                     logger.info("User deactivated: {}", userToUpdate.getEmail());
                 }
@@ -202,7 +214,13 @@ public class UserService implements UserDetailsService {
                 }
             }
 
+            // ✅ Token'lar email/aktiflik bilgisi taşıdığı için eski token'lar geçersiz kılınır
+            if (revokeTokens) {
+                userToUpdate.revokeIssuedTokens();
+            }
+
             User updated = userRepository.save(userToUpdate);
+            userCache.invalidateAfterCommit(userId);
             logger.info("User updated successfully: {}", updated.getEmail());
 
             return updated;
@@ -210,6 +228,9 @@ public class UserService implements UserDetailsService {
         } catch (LimitExceededException e) {
             logger.warn("User update failed - Limit exceeded: {}", e.getMessage());
             throw e;
+        } catch (PasswordHashingBusyException e) {
+            logger.warn("User update failed - Password hashing busy: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("User update failed: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to update user: " + e.getMessage(), e);
@@ -230,7 +251,9 @@ public class UserService implements UserDetailsService {
         try {
             // Soft delete
             user.setIsActive(false);
+            user.revokeIssuedTokens();
             userRepository.save(user);
+            userCache.invalidateAfterCommit(userId);
 
             // UsageTracking'i güncelle (aynı transaction içinde)
             updateUsageTrackingAfterUserRemove(user);
@@ -243,6 +266,24 @@ public class UserService implements UserDetailsService {
         }
     }
 
+    /**
+     * Şifre hash'ini yeni BCrypt maliyetiyle değiştir (girişte)
+     * <p>
+     * Şifre aynı kaldığı için token'lar geçersiz kılınmaz.
+     * Hash bu arada değiştiyse (eşzamanlı şifre değişikliği) hiçbir şey yapılmaz.
+     */
+    @Transactional(
+            propagation = Propagation.REQUIRED,
+            rollbackFor = Exception.class
+    )
+    public boolean rehashPassword(Long userId, String currentHash, String newHash) {
+        boolean updated = userRepository.updatePasswordHash(userId, currentHash, newHash) > 0;
+        if (updated) {
+            userCache.invalidateAfterCommit(userId);
+        }
+        return updated;
+    }
+
     // ✅ Write işlemi - Transactional
     @Transactional(
             propagation = Propagation.REQUIRED,
@@ -293,6 +334,7 @@ public class UserService implements UserDetailsService {
             // Kullanıcıyı aktifleştir
             userToActivate.setIsActive(true);
             User activated = userRepository.save(userToActivate);
+            userCache.invalidateAfterCommit(userId);
 
             // UsageTracking güncelle (aynı transaction içinde)
             if (activated.isBrokerStaff()) {
@@ -338,6 +380,7 @@ public class UserService implements UserDetailsService {
 
             // Kullanıcıyı sil (hard delete - henüz sisteme girmedi)
             userRepository.delete(userToReject);
+            userCache.invalidateAfterCommit(userId);
 
             logger.info("User rejected and deleted successfully: {} by {}",
                     userToReject.getEmail(), rejectingUser.getEmail());
@@ -366,18 +409,14 @@ public class UserService implements UserDetailsService {
             return userRepository.findAll();
         } else if (currentUser.isBrokerAdmin()) {
             // BROKER_ADMIN kendi firmasındaki tüm kullanıcıları + müşteri kullanıcılarını görebilir
-            Company brokerCompany = currentUser.getCompany();
-
-            List<User> allUsers = new ArrayList<>();
+            // ✅ Kendi firması + aktif müşteri firmaları tek IN sorgusunda
+            Long brokerCompanyId = currentUser.getCompany().getId();
+            List<Long> companyIds = companyHierarchyService.getCompanyIdsInScope(brokerCompanyId);
 
-            // 1. Kendi firmasındaki broker kullanıcıları
-            allUsers.addAll(userRepository.findByCompanyAndIsActiveTrue(brokerCompany));
+            List<User> allUsers = new ArrayList<>(userRepository.findActiveByCompanyIdIn(companyIds));
 
-            // 2. Müşteri firmalarının kullanıcıları
-            List<Company> clientCompanies = companyRepository.findByParentBrokerAndIsActiveTrue(brokerCompany);
-            for (Company client : clientCompanies) {
-                allUsers.addAll(userRepository.findByCompanyAndIsActiveTrue(client));
-            }
+            // Önce broker kullanıcıları, sonra müşteri kullanıcıları
+            allUsers.sort(Comparator.comparing(user -> !brokerCompanyId.equals(user.getCompany().getId())));
 
             return allUsers;
         } else {
@@ -388,16 +427,35 @@ public class UserService implements UserDetailsService {
 
     /**
      * Email ile kullanıcı bul
+     * <p>
+     * ✅ Kullanıcı önbelleğinden gelir. Dönen entity persistence context'e bağlı olmayan yeni bir kopyadır:
+     * - Üzerindeki değişiklikler dirty checking ile kaydedilmez; çağıranlar buna güvenmemelidir.
+     *   Kullanıcıyı değiştiren kod userRepository'den yüklenmiş entity ile çalışmalıdır
+     * - Şifre alanı boştur; giriş için {@link #findForLogin(String)} kullanılır
      */
     public Optional<User> findByEmail(String email) {
-        return userRepository.findByEmailWithCompany(email); // ✅ Optimized
+        return userCache.findByEmail(email).map(this::toUser);
+    }
+
+    /**
+     * Giriş için kullanıcıyı şifre hash'i ve firma bilgileriyle birlikte doğrudan veritabanından yükler
+     * (önbellek hash tutmaz).
+     */
+    public Optional<User> findForLogin(String email) {
+        return userRepository.findByEmailWithCompanyDetails(email);
     }
 
     /**
-     * ID ile kullanıcı bul
+     * ID ile kullanıcı bul (önbellekten, detached kopya ve şifresiz; bkz. findByEmail)
      */
     public Optional<User> findById(Long id) {
-        return userRepository.findByIdWithCompanyDetails(id); // ✅ Optimized
+        return userCache.findById(id).map(this::toUser);
+    }
+
+    // Firma, mevcut persistence context'e bağlı lazy referans olarak eklenir (adı vb. ihtiyaç olursa yüklenir)
+    private User toUser(UserSnapshot snapshot) {
+        Long companyId = snapshot.getCompanyId();
+        return snapshot.toUser(companyId != null ? companyRepository.getReferenceById(companyId) : null);
     }
 
     /**
@@ -519,9 +577,7 @@ public class UserService implements UserDetailsService {
 
             // BROKER_ADMIN veya BROKER_USER ise, müşteri firmalarını da ekle
             if (user.isBrokerStaff() && user.getCompany().isBroker()) {
-                companies.addAll(
-                        companyRepository.findByParentBrokerAndIsActiveTrue(user.getCompany())
-                );
+                companies.addAll(findActiveClients(user.getCompany().getId()));
             }
         }
 
@@ -542,9 +598,7 @@ public class UserService implements UserDetailsService {
             companies.add(user.getCompany());
 
             if (user.getCompany().isBroker()) {
-                companies.addAll(
-                        companyRepository.findByParentBrokerAndIsActiveTrue(user.getCompany())
-                );
+                companies.addAll(findActiveClients(user.getCompany().getId()));
             }
 
             return companies;
@@ -553,6 +607,15 @@ public class UserService implements UserDetailsService {
         return new ArrayList<>();
     }
 
+    // Broker'ın aktif müşteri firmaları (hiyerarşiden id'ler, tek IN sorgusu)
+    private List<Company> findActiveClients(Long brokerCompanyId) {
+        List<Long> clientIds = companyHierarchyService.getActiveClientIds(brokerCompanyId);
+        if (clientIds.isEmpty()) {
+            return List.of();
+        }
+        return companyRepository.findAllById(clientIds);
+    }
+
     // ==========================================
     // USAGE TRACKING GÜNCELLEMELERI
     // ==========================================
@@ -606,54 +669,27 @@ public class UserService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Optional<User> user = userRepository.findByEmailWithCompany(username); // ✅ Optimized
+        // ✅ Kullanıcı önbelleğinden; principal firma/broker id'leri ile istek boyunca yeniden sorgulanmadan kullanılır
+        Optional<UserSnapshot> user = userCache.findByEmail(username);
 
         if (user.isEmpty()) {
             logger.warn("User not found with email: {}", username);
             throw new UsernameNotFoundException("User not found: " + username);
         }
 
-        User foundUser = user.get();
+        UserSnapshot foundUser = user.get();
 
-        if (!foundUser.getIsActive()) {
+        if (!foundUser.isActive()) {
             logger.warn("Inactive user attempted login: {}", username);
             throw new UsernameNotFoundException("User account is disabled: " + username);
         }
 
-        List<GrantedAuthority> authorities = getAuthorities(foundUser);
+        AuthenticatedUser principal = AuthenticatedUser.fromSnapshot(foundUser);
 
         logger.debug("User loaded for authentication: {} - Authorities: {}",
-                foundUser.getEmail(), authorities);
-
-        return new org.springframework.security.core.userdetails.User(
-                foundUser.getEmail(),
-                foundUser.getPassword(),
-                foundUser.getIsActive(),
-                true,
-                true,
-                true,
-                authorities
-        );
-    }
-
-    /**
-     * Kullanıcının yetkilerini (authorities) oluştur
-     */
-    private List<GrantedAuthority> getAuthorities(User user) {
-        List<GrantedAuthority> authorities = new ArrayList<>();
-        authorities.add(new SimpleGrantedAuthority("ROLE_" + user.getGlobalRole().name()));
-
-        if (user.isSuperAdmin()) {
-            authorities.add(new SimpleGrantedAuthority("ROLE_SUPER_ADMIN"));
-        }
+                foundUser.getEmail(), principal.getAuthorities());
 
-        if (user.getCompany() != null) {
-            String companyRole = "ROLE_" + user.getGlobalRole().name() +
-                    "_COMPANY_" + user.getCompany().getId();
-            authorities.add(new SimpleGrantedAuthority(companyRole));
-        }
-
-        return authorities;
+        return principal;
     }
 
     // ==========================================
@@ -713,23 +749,16 @@ public class UserService implements UserDetailsService {
 
         if (requestingUser.isBrokerAdmin()) {
             // BROKER_ADMIN kendi müşteri firmalarındaki pasif kullanıcıları görebilir
-            Company brokerCompany = requestingUser.getCompany();
-
-            List<User> pendingUsers = new ArrayList<>();
+            Long brokerCompanyId = requestingUser.getCompany().getId();
 
-            // Müşteri firmalarını bul
-            List<Company> clientCompanies = companyRepository
-                    .findByParentBrokerAndIsActiveTrue(brokerCompany);
-
-            // Her müşteri firmasının pasif kullanıcılarını ekle
-            for (Company client : clientCompanies) {
-                List<User> clientPendingUsers = userRepository
-                        .findByCompanyAndIsActiveFalse(client);
-                pendingUsers.addAll(clientPendingUsers);
-            }
+            // ✅ Tüm müşteri firmalarının pasif kullanıcıları tek IN sorgusunda
+            List<Long> clientIds = companyHierarchyService.getActiveClientIds(brokerCompanyId);
+            List<User> pendingUsers = clientIds.isEmpty()
+                    ? List.of()
+                    : userRepository.findInactiveByCompanyIdIn(clientIds);
 
             logger.info("Found {} pending users for broker: {}",
-                    pendingUsers.size(), brokerCompany.getName());
+                    pendingUsers.size(), brokerCompanyId);
 
             return pendingUsers;
         }
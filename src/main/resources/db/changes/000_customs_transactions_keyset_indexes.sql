@@ -0,0 +1,11 @@
+-- =====================================================================
+-- customs_transactions keyset sayfalama indeksleri
+-- ---------------------------------------------------------------------
+-- Broker ve client işlem listeleri (created_at, id) sırasıyla keyset
+-- sayfalanır. Indeksler olmadan sorgu firma indeksinden tüm satırları
+-- okuyup sıralar. prod profili ddl-auto=validate ile çalıştığı için
+-- uygulamanın yeni sürümü deploy edilmeden ÖNCE çalıştırılmalıdır.
+-- =====================================================================
+
+CREATE INDEX idx_broker_created ON customs_transactions (broker_company_id, created_at, id);
+CREATE INDEX idx_client_created ON customs_transactions (client_company_id, created_at, id);
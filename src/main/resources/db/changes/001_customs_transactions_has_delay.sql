@@ -0,0 +1,18 @@
+-- =====================================================================
+-- customs_transactions.has_delay
+-- ---------------------------------------------------------------------
+-- prod profili ddl-auto=validate ile çalıştığı için, uygulamanın yeni
+-- sürümü deploy edilmeden ÖNCE bu script çalıştırılmalıdır.
+-- has_delay, delay_reason doluysa 1'dir (CustomsTransaction.hasDelay()).
+-- =====================================================================
+
+ALTER TABLE customs_transactions
+    ADD COLUMN has_delay BIT(1) NOT NULL DEFAULT b'0';
+
+UPDATE customs_transactions
+SET has_delay = b'1'
+WHERE delay_reason IS NOT NULL
+  AND delay_reason <> '';
+
+CREATE INDEX idx_broker_delay_created ON customs_transactions (broker_company_id, has_delay, created_at);
+CREATE INDEX idx_delay_created ON customs_transactions (has_delay, created_at);
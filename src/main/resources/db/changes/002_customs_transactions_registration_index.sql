@@ -0,0 +1,10 @@
+-- =====================================================================
+-- customs_transactions tescil tarihi indeksleri
+-- ---------------------------------------------------------------------
+-- /api/transactions/date-range firma kapsamında (registration_date, id)
+-- sırasıyla keyset sayfalanır. Indeksler olmadan sorgu firma
+-- indeksinden tüm satırları okuyup sıralar.
+-- =====================================================================
+
+CREATE INDEX idx_broker_registration ON customs_transactions (broker_company_id, registration_date, id);
+CREATE INDEX idx_client_registration ON customs_transactions (client_company_id, registration_date, id);
@@ -0,0 +1,10 @@
+-- =====================================================================
+-- users.token_version
+-- ---------------------------------------------------------------------
+-- JWT'ler kullanıcı id, rol ve firma bilgisini taşır; filtre kullanıcıyı
+-- veritabanından yüklemez. Token'daki sürüm bu kolonla karşılaştırılır,
+-- kolon artırıldığında (şifre/email/aktiflik değişimi) eski token'lar
+-- geçersiz olur.
+-- =====================================================================
+
+ALTER TABLE users ADD COLUMN token_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,9 @@
+-- =====================================================================
+-- password_reset_requests.reset_token indeksi
+-- ---------------------------------------------------------------------
+-- Token ile sıfırlama (findByResetTokenAndStatus) ve veritabanı tabanlı
+-- token deposu her istekte token ile arar. İndeks olmadan tablo baştan
+-- sona taranır.
+-- =====================================================================
+
+CREATE INDEX idx_reset_token ON password_reset_requests (reset_token);
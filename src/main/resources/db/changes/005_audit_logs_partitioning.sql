@@ -0,0 +1,41 @@
+-- =====================================================================
+-- audit_logs aylık RANGE bölümleme (timestamp)
+-- ---------------------------------------------------------------------
+-- Tüm audit okumaları zaman aralıklıdır; bölümleme ile MySQL sadece
+-- ilgili ayların bölümlerini okur (partition pruning) ve eski aylar
+-- tek komutla (DROP / EXCHANGE PARTITION) kaldırılır.
+--
+-- MySQL kısıtları:
+--   * Bölümlenmiş InnoDB tablolarında yabancı anahtar olamaz → user_id FK kaldırılır
+--   * Her benzersiz anahtar bölüm sütununu içermeli → PK (id, timestamp)
+-- Entity tarafı değişmez (@Id id); ddl-auto=validate PK bileşimini ve
+-- bölümlemeyi kontrol etmez.
+--
+-- Geçmiş kayıtlar tek bölümde (phistory, içinde bulunulan ay dahil) kalır;
+-- sonraki aylar uygulama açılışında AuditPartitionManager tarafından
+-- pmax bölümünden ayrılarak oluşturulur (p202611, p202612, ...).
+-- Tablo yeniden yazıldığı için bakım penceresinde çalıştırın.
+-- =====================================================================
+
+-- 1) user_id yabancı anahtarı (Hibernate tarafından üretilmiş adı bilinmiyor)
+SET @fk := (SELECT CONSTRAINT_NAME FROM information_schema.TABLE_CONSTRAINTS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_logs'
+              AND CONSTRAINT_TYPE = 'FOREIGN KEY'
+            LIMIT 1);
+SET @sql := IF(@fk IS NULL, 'DO 0', CONCAT('ALTER TABLE audit_logs DROP FOREIGN KEY `', @fk, '`'));
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 2) Birincil anahtar bölüm sütununu içermeli
+ALTER TABLE audit_logs DROP PRIMARY KEY, ADD PRIMARY KEY (id, `timestamp`);
+
+-- 3) Bölümleme: geçmiş + gelecek kayıtlar için MAXVALUE bölümü
+SET @next_month := DATE_FORMAT(CURDATE() + INTERVAL 1 MONTH, '%Y-%m-01');
+SET @sql := CONCAT(
+        'ALTER TABLE audit_logs PARTITION BY RANGE (TO_DAYS(`timestamp`)) (',
+        'PARTITION phistory VALUES LESS THAN (TO_DAYS(''', @next_month, ''')), ',
+        'PARTITION pmax VALUES LESS THAN MAXVALUE)');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,18 @@
+-- =====================================================================
+-- audit_logs arama indeksleri
+-- ---------------------------------------------------------------------
+-- /api/audit-logs kullanıcı, entity, aksiyon ve sonuç filtreleriyle
+-- (timestamp, id) sırasıyla keyset sayfalanır. Her filtre için
+-- (sütun, timestamp) bileşik indeksi; InnoDB birincil anahtarı (id)
+-- indekse eklediği için sıralama da indeksten okunur.
+-- Tek sütunlu idx_user_id ve idx_entity_type yeni indekslerin önekidir,
+-- kaldırılır.
+-- =====================================================================
+
+ALTER TABLE audit_logs
+    ADD INDEX idx_audit_user_time (user_id, `timestamp`),
+    ADD INDEX idx_audit_entity_time (entity_type, entity_id, `timestamp`),
+    ADD INDEX idx_audit_action_time (action, `timestamp`),
+    ADD INDEX idx_audit_result_time (result, `timestamp`),
+    DROP INDEX idx_user_id,
+    DROP INDEX idx_entity_type;
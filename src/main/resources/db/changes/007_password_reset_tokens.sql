@@ -0,0 +1,19 @@
+-- =====================================================================
+-- password_reset_tokens
+-- ---------------------------------------------------------------------
+-- Self-service (email ile) sıfırlama token'ları admin onaylı isteklerden
+-- (password_reset_requests) ayrı tabloda tutulur: admin onay listesinde
+-- görünmezler ve iki akış birbirinin token'ını kabul etmez.
+-- =====================================================================
+
+CREATE TABLE password_reset_tokens (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    token      VARCHAR(64)  NOT NULL,
+    user_id    BIGINT       NOT NULL,
+    expires_at DATETIME(6)  NOT NULL,
+    created_at DATETIME(6)  NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_password_reset_tokens_token (token),
+    KEY idx_reset_token_expires (expires_at),
+    CONSTRAINT fk_password_reset_tokens_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,58 @@
+package com.gcodes.aacctracker.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ETagsTest {
+
+    private static final String ETAG = ETags.of("CustomsTransaction", 42L, LocalDateTime.of(2026, 10, 1, 12, 0));
+
+    @Test
+    void ofProducesQuotedStrongTagThatDependsOnAllParts() {
+        assertThat(ETAG).startsWith("\"").endsWith("\"").doesNotStartWith("W/");
+        assertThat(ETags.of("CustomsTransaction", 42L, LocalDateTime.of(2026, 10, 1, 12, 0))).isEqualTo(ETAG);
+        assertThat(ETags.of("CustomsTransaction", 42L, LocalDateTime.of(2026, 10, 1, 12, 1))).isNotEqualTo(ETAG);
+        assertThat(ETags.of("AgencyAgreement", 42L, LocalDateTime.of(2026, 10, 1, 12, 0))).isNotEqualTo(ETAG);
+    }
+
+    @Test
+    void missingHeaderNeverMatches() {
+        assertThat(ETags.matches(null, ETAG)).isFalse();
+        assertThat(ETags.matches("", ETAG)).isFalse();
+        assertThat(ETags.matches("   ", ETAG)).isFalse();
+    }
+
+    @Test
+    void strongTagMatchesItself() {
+        assertThat(ETags.matches(ETAG, ETAG)).isTrue();
+        assertThat(ETags.matches("\"other\"", ETAG)).isFalse();
+    }
+
+    @Test
+    void weakTagMatchesStrongTagWithSameValue() {
+        // If-None-Match zayıf karşılaştırma kullanır (RFC 9110 13.1.2)
+        assertThat(ETags.matches("W/" + ETAG, ETAG)).isTrue();
+        assertThat(ETags.matches("W/\"other\"", ETAG)).isFalse();
+    }
+
+    @Test
+    void unquotedValueDoesNotMatch() {
+        assertThat(ETags.matches(ETAG.replace("\"", ""), ETAG)).isFalse();
+    }
+
+    @Test
+    void wildcardMatchesAnyTag() {
+        assertThat(ETags.matches("*", ETAG)).isTrue();
+        assertThat(ETags.matches(" * ", ETAG)).isTrue();
+    }
+
+    @Test
+    void commaSeparatedListMatchesAnyMember() {
+        assertThat(ETags.matches("\"a\", " + ETAG + ", \"b\"", ETAG)).isTrue();
+        assertThat(ETags.matches("\"a\",W/" + ETAG, ETAG)).isTrue();
+        assertThat(ETags.matches("\"a\", W/\"b\", \"c\"", ETAG)).isFalse();
+    }
+}
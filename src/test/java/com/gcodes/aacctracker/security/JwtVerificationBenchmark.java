@@ -0,0 +1,94 @@
+package com.gcodes.aacctracker.security;
+
+import com.gcodes.aacctracker.model.GlobalRole;
+import com.gcodes.aacctracker.model.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * İstek başına JWT doğrulama maliyeti.
+ * <p>
+ * legacy: eski akış (her çağrıda anahtar + parser oluşturma, token'ı iki kez parse etme)
+ * parse: önbelleksiz tek parse (önbellekte olmayan token)
+ * verify: önbellekten dönen doğrulama (aynı token'ın sonraki istekleri)
+ * <p>
+ * Çalıştırma: test classpath'i ile main() (ör. IDE'den) veya
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.gcodes.aacctracker.security.JwtVerificationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-0123456789";
+
+    private JwtTokenProvider provider;
+    private String token;
+
+    @Setup
+    public void setup() {
+        provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "secretKey", SECRET);
+        ReflectionTestUtils.setField(provider, "validityInMilliseconds", 3_600_000L);
+        ReflectionTestUtils.setField(provider, "verificationCacheMaxSize", 10_000L);
+        provider.init();
+
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("benchmark@example.com");
+        user.setGlobalRole(GlobalRole.SUPER_ADMIN);
+
+        token = provider.generateToken(user);
+        provider.verify(token);
+    }
+
+    @Benchmark
+    public String legacy() {
+        Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token);
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    @Benchmark
+    public JwtClaims parse() {
+        return provider.parse(token);
+    }
+
+    @Benchmark
+    public JwtClaims verify() {
+        return provider.verify(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
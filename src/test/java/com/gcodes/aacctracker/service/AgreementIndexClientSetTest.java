@@ -0,0 +1,142 @@
+package com.gcodes.aacctracker.service;
+
+import com.gcodes.aacctracker.service.AgreementIndex.ClientSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AgreementIndexClientSetTest {
+
+    @Test
+    void emptySetContainsNothing() {
+        assertThat(ClientSet.EMPTY.size()).isZero();
+        assertThat(ClientSet.EMPTY.contains(1)).isFalse();
+        assertThat(ClientSet.of(new long[0])).isSameAs(ClientSet.EMPTY);
+    }
+
+    @Test
+    void ofIgnoresDuplicatesAndZero() {
+        ClientSet set = ClientSet.of(new long[]{5, 0, 5, 7, 7, 7});
+
+        assertThat(set.size()).isEqualTo(2);
+        assertThat(set.contains(5)).isTrue();
+        assertThat(set.contains(7)).isTrue();
+        assertThat(set.contains(0)).isFalse();
+        assertThat(ClientSet.of(new long[]{0, 0})).isSameAs(ClientSet.EMPTY);
+    }
+
+    @Test
+    void withInsertsAndLeavesOriginalUnchanged() {
+        ClientSet original = ClientSet.of(new long[]{1, 2});
+        ClientSet added = original.with(3);
+
+        assertThat(added.size()).isEqualTo(3);
+        assertThat(added.contains(3)).isTrue();
+        assertThat(original.size()).isEqualTo(2);
+        assertThat(original.contains(3)).isFalse();
+
+        // Mevcut değer veya 0 eklemek aynı örneği döner
+        assertThat(added.with(3)).isSameAs(added);
+        assertThat(added.with(0)).isSameAs(added);
+    }
+
+    @Test
+    void withoutRemovesAndLeavesOriginalUnchanged() {
+        ClientSet original = ClientSet.of(new long[]{1, 2, 3});
+        ClientSet removed = original.without(2);
+
+        assertThat(removed.size()).isEqualTo(2);
+        assertThat(removed.contains(2)).isFalse();
+        assertThat(removed.contains(1)).isTrue();
+        assertThat(removed.contains(3)).isTrue();
+        assertThat(original.contains(2)).isTrue();
+
+        assertThat(removed.without(42)).isSameAs(removed);
+        assertThat(ClientSet.of(new long[]{9}).without(9).size()).isZero();
+    }
+
+    @Test
+    void containsEveryValueAfterRepeatedGrowth() {
+        ClientSet set = ClientSet.EMPTY;
+        for (long value = 1; value <= 1000; value++) {
+            set = set.with(value);
+
+            assertThat(set.size()).isEqualTo((int) value);
+            for (long existing = 1; existing <= value; existing += 37) {
+                assertThat(set.contains(existing)).as("%d after %d inserts", existing, value).isTrue();
+            }
+        }
+
+        for (long value = 1; value <= 1000; value++) {
+            assertThat(set.contains(value)).isTrue();
+        }
+        assertThat(set.contains(1001)).isFalse();
+        assertThat(set.contains(-1)).isFalse();
+    }
+
+    @Test
+    void removingFromCollisionChainKeepsLaterEntriesReachable() {
+        // Aynı başlangıç slotuna düşen 4 değer (4 değerlik tablo 8 slotludur)
+        long[] chain = collidingValues(4, 8);
+        ClientSet set = ClientSet.of(chain);
+        assertThat(set.size()).isEqualTo(4);
+
+        for (long removed : chain) {
+            ClientSet without = set.without(removed);
+
+            assertThat(without.size()).isEqualTo(3);
+            assertThat(without.contains(removed)).isFalse();
+            for (long other : chain) {
+                if (other != removed) {
+                    assertThat(without.contains(other)).as("%d after removing %d", other, removed).isTrue();
+                }
+            }
+        }
+
+        // Zincirin başı ve ortası art arda silinir
+        ClientSet shrunk = set.without(chain[0]).without(chain[1]);
+        assertThat(shrunk.contains(chain[2])).isTrue();
+        assertThat(shrunk.contains(chain[3])).isTrue();
+    }
+
+    @Test
+    void matchesHashSetUnderMixedInsertAndRemove() {
+        Set<Long> expected = new HashSet<>();
+        ClientSet set = ClientSet.EMPTY;
+
+        for (long value = 1; value <= 2000; value++) {
+            set = set.with(value * 31);
+            expected.add(value * 31);
+            if (value % 3 == 0) {
+                long victim = (value / 3) * 31;
+                set = set.without(victim);
+                expected.remove(victim);
+            }
+        }
+
+        assertThat(set.size()).isEqualTo(expected.size());
+        long[] values = set.toArray();
+        assertThat(values).hasSize(expected.size());
+        assertThat(Arrays.stream(values).boxed().toList()).containsExactlyInAnyOrderElementsOf(expected);
+        for (long value = 1; value <= 2000 * 31; value++) {
+            assertThat(set.contains(value)).isEqualTo(expected.contains(value));
+        }
+    }
+
+    private static long[] collidingValues(int count, int capacity) {
+        List<Long> values = new ArrayList<>();
+        int bucket = ClientSet.mix(1) & (capacity - 1);
+        for (long value = 1; values.size() < count; value++) {
+            if ((ClientSet.mix(value) & (capacity - 1)) == bucket) {
+                values.add(value);
+            }
+        }
+        return values.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,173 @@
+package com.gcodes.aacctracker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gcodes.aacctracker.model.CustomsTransaction;
+import com.gcodes.aacctracker.model.TransactionStatus;
+import com.gcodes.aacctracker.repository.AuditLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuditDiffServiceTest {
+
+    private static final Long TRANSACTION_ID = 1L;
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Yazılmış audit kayıtları (zaman, change_details)
+    private final List<Map.Entry<LocalDateTime, String>> auditRows = new ArrayList<>();
+
+    private AuditDiffService diffService;
+
+    @BeforeEach
+    void setUp() {
+        AuditLogRepository repository = mock(AuditLogRepository.class);
+        when(repository.findChangeDetailsSince(eq("CustomsTransaction"), eq(TRANSACTION_ID), any()))
+                .thenAnswer(invocation -> {
+                    LocalDateTime since = invocation.getArgument(2);
+                    return auditRows.stream()
+                            .filter(row -> row.getKey().isAfter(since))
+                            .sorted(Map.Entry.<LocalDateTime, String>comparingByKey(Comparator.reverseOrder()))
+                            .map(Map.Entry::getValue)
+                            .toList();
+                });
+
+        diffService = new AuditDiffService();
+        ReflectionTestUtils.setField(diffService, "fieldRegistry", new AuditFieldRegistry());
+        ReflectionTestUtils.setField(diffService, "auditLogRepository", repository);
+        ReflectionTestUtils.setField(diffService, "objectMapper", objectMapper);
+    }
+
+    @Test
+    void snapshotNormalizesValues() {
+        CustomsTransaction transaction = transaction();
+
+        Map<String, Object> snapshot = diffService.snapshot(transaction);
+
+        assertThat(snapshot).containsEntry("weight", "10")
+                .containsEntry("warehouseArrivalDate", "2026-01-01")
+                .containsEntry("status", "PENDING")
+                .containsEntry("delayReason", null);
+        assertThat(diffService.snapshot("not tracked")).isEmpty();
+    }
+
+    @Test
+    void diffContainsOnlyChangedFields() {
+        CustomsTransaction transaction = transaction();
+        Map<String, Object> before = diffService.snapshot(transaction);
+
+        transaction.setWeight(new BigDecimal("10.000"));
+        transaction.setDescription("updated");
+        transaction.setStatus(TransactionStatus.IN_PROGRESS);
+
+        Map<String, Object[]> changes = diffService.diff(before, diffService.snapshot(transaction));
+
+        assertThat(changes).containsOnlyKeys("description", "status");
+        assertThat(changes.get("description")).containsExactly("initial", "updated");
+        assertThat(changes.get("status")).containsExactly("PENDING", "IN_PROGRESS");
+    }
+
+    @Test
+    void changeDetailsIsNullWithoutChanges() {
+        Map<String, Object> snapshot = diffService.snapshot(transaction());
+
+        assertThat(diffService.toChangeDetails(snapshot, snapshot)).isNull();
+    }
+
+    @Test
+    void changeDetailsRoundTripsThroughJson() throws Exception {
+        CustomsTransaction transaction = transaction();
+        Map<String, Object> before = diffService.snapshot(transaction);
+        transaction.setWeight(new BigDecimal("12.50"));
+        transaction.setDelayReason("Eksik evrak");
+
+        String details = diffService.toChangeDetails(before, diffService.snapshot(transaction));
+
+        assertThat(objectMapper.readTree(details)).isEqualTo(objectMapper.readTree(
+                "{\"diff\":{\"weight\":[\"10\",\"12.5\"],\"delayReason\":[null,\"Eksik evrak\"]}}"));
+    }
+
+    @Test
+    void rebuildsEveryVersionAcrossSeveralChanges() {
+        CustomsTransaction transaction = transaction();
+        Map<String, Object> v0 = diffService.snapshot(transaction);
+
+        transaction.setDescription("updated");
+        transaction.setWeight(new BigDecimal("12.5"));
+        Map<String, Object> v1 = record(transaction, v0, T0.plusHours(1));
+
+        transaction.setStatus(TransactionStatus.IN_PROGRESS);
+        transaction.setWarehouseArrivalDate(LocalDate.of(2026, 1, 2));
+        Map<String, Object> v2 = record(transaction, v1, T0.plusHours(2));
+
+        transaction.setStatus(TransactionStatus.CANCELLED);
+        transaction.setDelayReason("Cancelled: customer request");
+        Map<String, Object> v3 = record(transaction, v2, T0.plusHours(3));
+
+        assertThat(diffService.rebuildAsOf(transaction, TRANSACTION_ID, T0.plusMinutes(30))).isEqualTo(v0);
+        assertThat(diffService.rebuildAsOf(transaction, TRANSACTION_ID, T0.plusHours(1))).isEqualTo(v1);
+        assertThat(diffService.rebuildAsOf(transaction, TRANSACTION_ID, T0.plusHours(2).plusMinutes(1))).isEqualTo(v2);
+        assertThat(diffService.rebuildAsOf(transaction, TRANSACTION_ID, T0.plusHours(4))).isEqualTo(v3);
+    }
+
+    @Test
+    void rebuildSkipsEntriesInLegacyFormat() {
+        CustomsTransaction transaction = transaction();
+        Map<String, Object> v0 = diffService.snapshot(transaction);
+        auditRows.add(Map.entry(T0.plusHours(1), "{\"after\":{\"status\":\"COMPLETED\"}}"));
+        auditRows.add(Map.entry(T0.plusHours(2), "not json"));
+
+        assertThat(diffService.rebuildAsOf(transaction, TRANSACTION_ID, T0)).isEqualTo(v0);
+    }
+
+    @Test
+    void rebuildRejectsUntrackedEntities() {
+        assertThatThrownBy(() -> diffService.rebuildAsOf("not tracked", TRANSACTION_ID, T0))
+                .isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void historyHorizonFollowsRetention() {
+        assertThat(diffService.historyHorizon()).isNull();
+
+        ReflectionTestUtils.setField(diffService, "retentionDays", 30);
+
+        assertThat(diffService.historyHorizon())
+                .isBetween(LocalDateTime.now().minusDays(30).minusMinutes(1), LocalDateTime.now().minusDays(30));
+    }
+
+    // ===== HELPER METODLARI =====
+
+    private Map<String, Object> record(CustomsTransaction transaction, Map<String, Object> before, LocalDateTime at) {
+        Map<String, Object> after = diffService.snapshot(transaction);
+        auditRows.add(Map.entry(at, diffService.toChangeDetails(before, after)));
+        return after;
+    }
+
+    private CustomsTransaction transaction() {
+        CustomsTransaction transaction = new CustomsTransaction();
+        transaction.setId(TRANSACTION_ID);
+        transaction.setFileNo("2026/0001");
+        transaction.setDescription("initial");
+        transaction.setWeight(new BigDecimal("10.00"));
+        transaction.setWarehouseArrivalDate(LocalDate.of(2026, 1, 1));
+        transaction.setStatus(TransactionStatus.PENDING);
+        return transaction;
+    }
+}
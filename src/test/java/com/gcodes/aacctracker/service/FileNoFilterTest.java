@@ -0,0 +1,84 @@
+package com.gcodes.aacctracker.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileNoFilterTest {
+
+    private static final int EXPECTED_INSERTIONS = 100_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private FileNoFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new FileNoFilter();
+        ReflectionTestUtils.setField(filter, "expectedInsertions", (long) EXPECTED_INSERTIONS);
+        ReflectionTestUtils.setField(filter, "falsePositiveRate", FALSE_POSITIVE_RATE);
+        filter.init();
+    }
+
+    @Test
+    void answersMaybeUntilSeeded() {
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.mightContain("2024/0001")).isTrue();
+    }
+
+    @Test
+    void nullIsAlwaysMaybe() {
+        markReady();
+        assertThat(filter.mightContain(null)).isTrue();
+    }
+
+    @Test
+    void hasNoFalseNegatives() {
+        for (int i = 0; i < EXPECTED_INSERTIONS; i++) {
+            filter.put(fileNo(i));
+        }
+        markReady();
+
+        for (int i = 0; i < EXPECTED_INSERTIONS; i++) {
+            assertThat(filter.mightContain(fileNo(i))).as(fileNo(i)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearConfiguredRateAtCapacity() {
+        for (int i = 0; i < EXPECTED_INSERTIONS; i++) {
+            filter.put(fileNo(i));
+        }
+        markReady();
+
+        int probes = 200_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("X-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Beklenen ~%1; dağılım sapması için iki kat pay
+        double rate = (double) falsePositives / probes;
+        assertThat(rate).isLessThan(FALSE_POSITIVE_RATE * 2);
+    }
+
+    @Test
+    void emptyFilterRejectsEverything() {
+        markReady();
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(filter.mightContain(fileNo(i))).isFalse();
+        }
+    }
+
+    private void markReady() {
+        ReflectionTestUtils.setField(filter, "ready", true);
+    }
+
+    private static String fileNo(int i) {
+        return String.format("2024/%06d", i);
+    }
+}